@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The work measured by the JMH benchmarks in the benchmarks package
+ * JMH refuses benchmark classes in the default package, and a packaged class cannot name a default package
+ * class, so the benchmarks create these by name once and then only call them through JDK interfaces
+ */
+public final class BenchmarkTargets {
+    static final String SAMPLE_BOARD = "g p r g b y r w y e r w b r p";
+    
+    private BenchmarkTargets() {
+    }
+    
+    /**
+     * Copy a game state, as done for every child of an expanded node
+     */
+    public static class CloneGameState implements Supplier<Object> {
+        private final GameState gameState = new GameState(SAMPLE_BOARD);
+        
+        @Override
+        public Object get() {
+            return gameState.clone();
+        }
+    }
+    
+    /**
+     * Copy a game state and move a candy in the copy, the full cost of generating one child
+     */
+    public static class MoveCandy implements Supplier<Object> {
+        private final GameState gameState = new GameState(SAMPLE_BOARD);
+        private final int[] moves = Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex());
+        private int nextMove;
+        
+        @Override
+        public Object get() {
+            GameState childState = gameState.clone();
+            childState.moveCandyAt(moves[nextMove]);
+            nextMove = (nextMove + 1) % moves.length;
+            return childState;
+        }
+    }
+    
+    /**
+     * Build the string form of a game state
+     */
+    public static class GameStateToString implements Supplier<Object> {
+        private final GameState gameState = new GameState(SAMPLE_BOARD);
+        
+        @Override
+        public Object get() {
+            return gameState.toString();
+        }
+    }
+    
+    /**
+     * Fill a new open list with the states a breadth first expansion of the sample board reaches,
+     * including the duplicates reached through different paths
+     */
+    public static class FillOpenList implements Supplier<Object> {
+        static final int STATE_COUNT = 4096;
+        private final List<GameState> gameStates = new ArrayList<>(STATE_COUNT);
+        
+        public FillOpenList() {
+            GameState rootGameState = new GameState(SAMPLE_BOARD);
+            Bot.computeHeuristicValue(rootGameState);
+            gameStates.add(rootGameState);
+            for (int i = 0; gameStates.size() < STATE_COUNT; i++) {
+                GameState gameState = gameStates.get(i);
+                for (int move : Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex())) {
+                    GameState childState = gameState.clone();
+                    childState.moveCandyAt(move);
+                    Bot.updateHeuristicValue(gameState, childState, move);
+                    gameStates.add(childState);
+                }
+            }
+        }
+        
+        @Override
+        public Object get() {
+            OpenList openList = new OpenList();
+            for (GameState gameState : gameStates) {
+                openList.addNewItem(gameState);
+            }
+            return openList;
+        }
+    }
+    
+    /**
+     * Solve every puzzle of an input file with a new search engine each
+     * Accepts "engine:path" before the first run
+     */
+    public static class SolveFile implements Consumer<String>, Supplier<Object> {
+        private Config.SEARCH.ENGINE engine;
+        private List<String> inputStrings;
+        
+        @Override
+        public void accept(String engineAndPath) {
+            int separator = engineAndPath.indexOf(':');
+            engine = Config.SEARCH.ENGINE.valueOf(engineAndPath.substring(0, separator));
+            try {
+                inputStrings = new ArrayList<>();
+                for (String line : Files.readAllLines(Paths.get(engineAndPath.substring(separator + 1)), StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        inputStrings.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read " + engineAndPath, e);
+            }
+        }
+        
+        @Override
+        public Object get() {
+            int numberOfMove = 0;
+            for (String inputString : inputStrings) {
+                GameState goalState = SearchEngine.create(engine).play(new GameState(inputString));
+                numberOfMove += goalState.getStepsTaken().size();
+            }
+            return numberOfMove;
+        }
+    }
+}
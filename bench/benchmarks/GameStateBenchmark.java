@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per node costs of the search: copying a game state, generating a child and building its string form
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private Supplier<Object> cloneGameState;
+    private Supplier<Object> moveCandy;
+    private Supplier<Object> gameStateToString;
+    
+    @Setup
+    public void setUp() {
+        cloneGameState = Targets.supplier("CloneGameState");
+        moveCandy = Targets.supplier("MoveCandy");
+        gameStateToString = Targets.supplier("GameStateToString");
+    }
+    
+    @Benchmark
+    public Object cloneGameState() {
+        return cloneGameState.get();
+    }
+    
+    @Benchmark
+    public Object cloneAndMoveCandy() {
+        return moveCandy.get();
+    }
+    
+    @Benchmark
+    public Object gameStateToString() {
+        return gameStateToString.get();
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of OpenList.addNewItem, one operation adds the same 4096 game states to a new open list
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenListBenchmark {
+    private Supplier<Object> fillOpenList;
+    
+    @Setup
+    public void setUp() {
+        fillOpenList = Targets.supplier("FillOpenList");
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(4096)
+    public Object addNewItem() {
+        return fillOpenList.get();
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * End to end solves: one operation solves every puzzle of an input file
+ * Input files are read relative to the working directory, run from the project root or set -p inputDirectory
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({"level1", "level2", "level3", "level4"})
+    public String level;
+    
+    @Param({"A_STAR"})
+    public String engine;
+    
+    @Param({"input"})
+    public String inputDirectory;
+    
+    private Supplier<Object> solveFile;
+    
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Object target = Targets.create("SolveFile");
+        ((Consumer<String>) target).accept(engine + ":" + inputDirectory + "/" + level + ".txt");
+        solveFile = (Supplier<Object>) target;
+    }
+    
+    @Benchmark
+    public Object solveAll() {
+        return solveFile.get();
+    }
+}
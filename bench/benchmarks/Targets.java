@@ -0,0 +1,24 @@
+package benchmarks;
+
+import java.util.function.Supplier;
+
+/**
+ * Create the default package workloads of BenchmarkTargets by name
+ */
+final class Targets {
+    private Targets() {
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <T> T create(String name) {
+        try {
+            return (T) Class.forName("BenchmarkTargets$" + name).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create benchmark target " + name, e);
+        }
+    }
+    
+    static Supplier<Object> supplier(String name) {
+        return create(name);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Restarting weighted A*: a first fast search with a heavily weighted heuristic, then searches with smaller
+ * and smaller weights, each pruned by the best goal found so far, until the time or node budget runs out
+ * The best goal found is returned, with a bound on how far it may be from optimal
+ *
+ * A weighted search ordered by g(n) + w * h(n) returns a goal at most w times the optimal cost, and a search
+ * whose open list runs out while pruning everything that cannot beat the best goal proves that goal optimal.
+ * Both bounds assume the heuristic never overestimates, so only searches with the pattern databases report one;
+ * with the column estimate of Heuristic the goal comes with no bound at all
+ */
+public class AnytimeBot implements SearchEngine {
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final double[] weights;
+    private final long timeBudgetNanos;
+    private final long nodeBudget;
+    private PatternHeuristic patternHeuristic; // Null when Config.SEARCH.USE_PATTERN_DATABASE is off
+    private GameState incumbent;
+    private double suboptimalityBound;
+    private long expandedCount;
+    private long deadline;
+    private SearchMetrics metrics;
+
+    public AnytimeBot() {
+        this(Config.SEARCH.ANYTIME_WEIGHTS, Config.SEARCH.ANYTIME_TIME_BUDGET_MILLIS, Config.SEARCH.ANYTIME_NODE_BUDGET);
+    }
+
+    /**
+     * @param weights          the heuristic weight of each search, decreasing, ending with 1 for an optimal search
+     * @param timeBudgetMillis the time after which no new search is started and the running one stops
+     * @param nodeBudget       the number of game states processed after which the searches stop
+     */
+    public AnytimeBot(double[] weights, long timeBudgetMillis, long nodeBudget) {
+        this.weights = weights.clone();
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * The budgets only stop the searches once a goal is found, so a solvable puzzle always gets an answer
+     *
+     * @param rootGameState the initial game state
+     * @return the best goal state found within the budget, null if the puzzle has no solution
+     */
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics = new SearchMetrics();
+        metrics.start();
+        try {
+            return improve(rootGameState);
+        } finally {
+            metrics.stop();
+        }
+    }
+
+    /**
+     * @return the counters of every search of the last puzzle, peak sizes are those of the largest search
+     */
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private GameState improve(GameState rootGameState) {
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState);
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+        incumbent = null;
+        suboptimalityBound = patternHeuristic != null ? Double.POSITIVE_INFINITY : Double.NaN;
+        expandedCount = 0;
+        deadline = System.nanoTime() + timeBudgetNanos;
+
+        for (double weight : weights) {
+            if (incumbent != null && isOverBudget()) {
+                break;
+            }
+            if (search(rootGameState, weight) && suboptimalityBound <= 1.0) {
+                break;
+            }
+        }
+        return incumbent;
+    }
+
+    /**
+     * @return how many times the optimal cost the last goal returned may cost at most, 1 when it is optimal,
+     * NaN when the search ran without the pattern databases and cannot bound it
+     */
+    @Override
+    public double getSuboptimalityBound() {
+        return suboptimalityBound;
+    }
+    
+    /**
+     * @return true when the unweighted search ran to its end with the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return suboptimalityBound <= 1.0 && patternHeuristic != null;
+    }
+
+    /**
+     * One weighted A* search, pruned by the best goal found so far
+     *
+     * @param rootGameState the initial game state
+     * @param weight        the weight of the heuristic
+     * @return true if the search ran to its end, false if a budget stopped it
+     */
+    private boolean search(GameState rootGameState, double weight) {
+        OpenList openList = new OpenList(Config.SEARCH.USE_SYMMETRY_REDUCTION);
+        LongHashSet closedList = new LongHashSet();
+        try {
+            return search(rootGameState, weight, openList, closedList);
+        } finally {
+            metrics.addDuplicates(openList.getDuplicateCount());
+            metrics.setPeakSizes(Math.max(metrics.getPeakOpenSize(), openList.getPeakSize()),
+                    Math.max(metrics.getPeakClosedSize(), closedList.size()));
+        }
+    }
+
+    private boolean search(GameState rootGameState, double weight, OpenList openList, LongHashSet closedList) {
+        GameState root = rootGameState.clone();
+        root.setHeuristicValue(weigh(estimate(root), weight));
+        openList.addNewItem(root);
+
+        while (!openList.isEmpty()) {
+            if (incumbent != null && expandedCount % DEADLINE_CHECK_INTERVAL == 0 && isOverBudget()) {
+                return false;
+            }
+            GameState bestNewState = openList.pollFirstItem();
+            long key = keyOf(bestNewState);
+            if (closedList.contains(key)) {
+                metrics.addDuplicates(1);
+                continue;
+            }
+            if (bestNewState.isGoalState()) {
+                incumbent = bestNewState;
+                if (patternHeuristic != null) {
+                    suboptimalityBound = Math.min(suboptimalityBound, weight);
+                }
+                return true;
+            }
+
+            closedList.add(key);
+            expandedCount++;
+            metrics.addExpanded();
+            for (int move : Config.GAME_RULES.getNeighbourIndexes(bestNewState.getEmptyCellIndex())) {
+                GameState childState = bestNewState.clone();
+                childState.moveCandyAt(move);
+                metrics.addGenerated();
+                int heuristicValue = sampledEstimate(childState);
+                if (incumbent != null
+                        && childState.getActualCostToReach() + heuristicValue >= incumbent.getActualCostToReach()) {
+                    continue;
+                }
+                childState.setHeuristicValue(weigh(heuristicValue, weight));
+                openList.addNewItem(childState);
+            }
+        }
+
+        // Nothing left could beat the best goal found, as far as an admissible heuristic can tell
+        if (incumbent != null && patternHeuristic != null) {
+            suboptimalityBound = 1.0;
+        }
+        return true;
+    }
+
+    private boolean isOverBudget() {
+        return expandedCount >= nodeBudget || System.nanoTime() - deadline >= 0;
+    }
+
+    private int estimate(GameState gameState) {
+        return patternHeuristic != null ? patternHeuristic.estimate(gameState.getBoard())
+                : Heuristic.estimate(gameState.getBoard());
+    }
+
+    /**
+     * Estimate a child game state, timing one call in SearchMetrics.HEURISTIC_SAMPLE_INTERVAL
+     *
+     * @param gameState the game state
+     * @return the unweighted heuristic value
+     */
+    private int sampledEstimate(GameState gameState) {
+        if (!metrics.sampleHeuristic()) {
+            return estimate(gameState);
+        }
+        long heuristicStartTime = System.nanoTime();
+        int heuristicValue = estimate(gameState);
+        metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+        return heuristicValue;
+    }
+
+    private static int weigh(int heuristicValue, double weight) {
+        return (int) Math.ceil(heuristicValue * weight);
+    }
+
+    private static long keyOf(GameState gameState) {
+        return Config.SEARCH.USE_SYMMETRY_REDUCTION ? Symmetry.canonical(gameState.getBoard()) : gameState.getBoard();
+    }
+}
@@ -0,0 +1,220 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solve many independent puzzles at once on a pool of worker threads, one new search engine per puzzle
+ * Boards solved before are answered from the shared SolutionCache
+ */
+public class BatchSolver {
+    public static final String SOLVED_BY_CACHE = "CACHE";
+    
+    private final ExecutorService workerPool;
+    private final Config.SEARCH.ENGINE engine;
+    private final SolutionCache solutionCache; // Null when Config.SEARCH.USE_SOLUTION_CACHE is off
+    
+    /**
+     * The outcome of one puzzle
+     */
+    public static class Result {
+        public static final String CSV_HEADER = "puzzle,solved_by,moves,time_ms," + SearchMetrics.CSV_HEADER;
+        
+        private final String inputString;
+        private final GameState goalState;
+        private final long timeTaken;
+        private final String solvedBy;
+        private final SearchMetrics metrics;
+        
+        Result(String inputString, GameState goalState, long timeTaken, String solvedBy, SearchMetrics metrics) {
+            this.inputString = inputString;
+            this.goalState = goalState;
+            this.timeTaken = timeTaken;
+            this.solvedBy = solvedBy;
+            this.metrics = metrics;
+        }
+        
+        public String getInputString() {
+            return inputString;
+        }
+        
+        /**
+         * @return the goal state reached, null if the puzzle has no solution
+         */
+        public GameState getGoalState() {
+            return goalState;
+        }
+        
+        /**
+         * @return the time spent on this puzzle in milliseconds
+         */
+        public long getTimeTaken() {
+            return timeTaken;
+        }
+        
+        /**
+         * @return what produced the answer: the search engine, with its suboptimality bound when it is above 1
+         * or marked unbounded when it has none, or SOLVED_BY_CACHE
+         */
+        public String getSolvedBy() {
+            return solvedBy;
+        }
+        
+        /**
+         * @return the counters of the search, null for a cache hit or an engine that collects none
+         */
+        public SearchMetrics getMetrics() {
+            return metrics;
+        }
+        
+        /**
+         * @param puzzleNumber the position of the puzzle in its input, from 1
+         * @return the result as a line of CSV_HEADER, without the line separator
+         */
+        public String toCsvRow(long puzzleNumber) {
+            return puzzleNumber + ",\"" + solvedBy + "\"," + (goalState != null ? goalState.getActualCostToReach() : "")
+                    + "," + timeTaken + "," + (metrics != null ? metrics.toCsvRow() : ",,,,,,,,");
+        }
+    }
+    
+    public BatchSolver() {
+        this(Config.SEARCH.DEFAULT_ENGINE, Config.SEARCH.BATCH_THREADS, Config.SEARCH.BATCH_USE_VIRTUAL_THREADS);
+    }
+    
+    /**
+     * @param engine            the search engine every puzzle is solved with
+     * @param threads           the number of platform worker threads
+     * @param useVirtualThreads run every puzzle on its own virtual thread instead, when the JVM supports them
+     */
+    public BatchSolver(Config.SEARCH.ENGINE engine, int threads, boolean useVirtualThreads) {
+        this.engine = engine;
+        solutionCache = SolutionCache.getShared();
+        ExecutorService virtualThreadPool = useVirtualThreads ? newVirtualThreadPool() : null;
+        workerPool = virtualThreadPool != null ? virtualThreadPool : Executors.newFixedThreadPool(Math.max(1, threads));
+    }
+    
+    /**
+     * Solve every input string, results come back in input order whatever order the workers finish in
+     *
+     * @param inputStrings the initial states
+     * @return one result per input string
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<Result> solveAll(List<String> inputStrings) throws InterruptedException {
+        List<Future<Result>> futures = new ArrayList<>(inputStrings.size());
+        for (String inputString : inputStrings) {
+            futures.add(submit(inputString));
+        }
+        
+        List<Result> results = new ArrayList<>(futures.size());
+        for (Future<Result> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+    
+    /**
+     * Queue one puzzle on the worker pool
+     *
+     * @param inputString the initial state
+     * @return the pending result
+     */
+    public Future<Result> submit(final String inputString) {
+        return workerPool.submit(() -> solve(inputString, engine, solutionCache));
+    }
+    
+    /**
+     * Wait for a pending result, rethrowing what the worker threw
+     *
+     * @param future the pending result
+     * @return the result
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static Result await(Future<Result> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    /**
+     * Stop the worker threads once the queued puzzles are done
+     */
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+    
+    /**
+     * Solve one puzzle on the calling thread, from the cache if it holds the board
+     * Solutions the engine reports optimal are cached for every engine, the others only for the same engine
+     * with the same heuristic, see SolutionCache
+     *
+     * @param inputString   the initial state
+     * @param engine        the search engine used when the cache misses
+     * @param solutionCache the cache, null to always search
+     * @return the result
+     *
+     * @throws InvalidBoardException if the input string is not a valid board
+     */
+    public static Result solve(String inputString, Config.SEARCH.ENGINE engine, SolutionCache solutionCache) {
+        long startTime = System.currentTimeMillis();
+        GameState gameState = new GameState(inputString);
+        int producer = SolutionCache.producerOf(engine, Config.SEARCH.USE_PATTERN_DATABASE);
+        GameState goalState = solutionCache != null ? solutionCache.lookup(gameState, producer) : null;
+        String solvedBy = SOLVED_BY_CACHE;
+        SearchMetrics metrics = null;
+        if (goalState == null) {
+            SearchEngine bot = SearchEngine.create(engine);
+            goalState = bot.play(gameState);
+            metrics = bot.getMetrics();
+            double suboptimalityBound = bot.getSuboptimalityBound();
+            solvedBy = describe(engine, suboptimalityBound);
+            if (solutionCache != null && goalState != null) {
+                solutionCache.store(gameState, goalState, bot.isOptimal() ? SolutionCache.OPTIMAL : producer);
+            }
+        }
+        return new Result(inputString, goalState, System.currentTimeMillis() - startTime, solvedBy, metrics);
+    }
+    
+    /**
+     * @param engine             the search engine
+     * @param suboptimalityBound the bound it reported on its answer, see SearchEngine.getSuboptimalityBound
+     * @return the engine, with the bound when it is above 1, marked unbounded when there is none
+     */
+    static String describe(Config.SEARCH.ENGINE engine, double suboptimalityBound) {
+        if (Double.isNaN(suboptimalityBound)) {
+            return engine + " (unbounded)";
+        }
+        if (suboptimalityBound > 1.0) {
+            return String.format("%s within %.2f of optimal", engine, suboptimalityBound);
+        }
+        return engine.toString();
+    }
+    
+    /**
+     * Virtual threads only exist from Java 21, look the factory up so the project still builds on older JDKs
+     *
+     * @return a thread per task executor, null if the running JVM has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadPool() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
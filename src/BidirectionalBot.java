@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * Bidirectional breadth first search: one frontier grows from the initial board, the other from every goal
+ * board with the same candies (see GoalBoards), always expanding whichever frontier is smaller by one whole
+ * layer. Moves are reversible, so the backward search uses the same moves as the forward one
+ *
+ * The layer in which the two searches first meet is still finished, and the cheapest meeting board of that
+ * layer is kept, which makes the solution optimal. Each side remembers, for every board it reached, its depth
+ * and the empty cell of the board it was reached from, which is enough to walk back to the start or the goal
+ */
+public class BidirectionalBot implements SearchEngine {
+    private static final int NOT_FOUND = -1;
+    private static final int NO_PREVIOUS_CELL = 0xF;
+    private static final int CELL_BITS = 4;
+
+    // Packed board -> depth << CELL_BITS | previous empty cell, for each side
+    private LongIntHashMap forwardVisited;
+    private LongIntHashMap backwardVisited;
+    private SearchMetrics metrics;
+    private long peakLayerSize;
+
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics = new SearchMetrics();
+        peakLayerSize = 0;
+        metrics.start();
+        try {
+            return search(rootGameState);
+        } finally {
+            // Open game states are those of the two current layers, closed ones every board either side reached
+            long visitedCount = forwardVisited != null ? forwardVisited.size() + backwardVisited.size() : 0;
+            metrics.setPeakSizes(peakLayerSize, visitedCount);
+            metrics.stop();
+        }
+    }
+
+    /**
+     * @return the counters of the last search, which evaluates no heuristic
+     */
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    private GameState search(GameState rootGameState) {
+        forwardVisited = null;
+        backwardVisited = null;
+        long rootBoard = rootGameState.getBoard();
+        if (Board.isGoal(rootBoard)) {
+            return rootGameState.clone();
+        }
+        long[] goals = GoalBoards.enumerate(rootGameState.getCandiesCount());
+        if (goals.length == 0) {
+            return null;
+        }
+
+        forwardVisited = new LongIntHashMap();
+        backwardVisited = new LongIntHashMap(goals.length);
+        long[] forwardLayer = {rootBoard};
+        forwardVisited.put(rootBoard, NO_PREVIOUS_CELL);
+        long[] backwardLayer = goals;
+        for (long goal : goals) {
+            backwardVisited.put(goal, NO_PREVIOUS_CELL);
+        }
+
+        int forwardDepth = 0;
+        int backwardDepth = 0;
+        while (forwardLayer.length > 0 && backwardLayer.length > 0) {
+            peakLayerSize = Math.max(peakLayerSize, forwardLayer.length + backwardLayer.length);
+            long meetingBoard;
+            if (forwardLayer.length <= backwardLayer.length) {
+                forwardLayer = expand(forwardLayer, ++forwardDepth, forwardVisited);
+                meetingBoard = bestMeeting(forwardLayer, forwardVisited, backwardVisited);
+            } else {
+                backwardLayer = expand(backwardLayer, ++backwardDepth, backwardVisited);
+                meetingBoard = bestMeeting(backwardLayer, backwardVisited, forwardVisited);
+            }
+            if (meetingBoard != NOT_FOUND) {
+                return replay(rootGameState, meetingBoard);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true, a breadth first search always finds the fewest moves
+     */
+    @Override
+    public boolean isOptimal() {
+        return true;
+    }
+
+    /**
+     * Generate the next layer of one side
+     *
+     * @param layer   the boards of the current layer
+     * @param depth   the depth of the next layer
+     * @param visited every board this side reached
+     * @return the boards first reached in the next layer
+     */
+    private long[] expand(long[] layer, int depth, LongIntHashMap visited) {
+        long[] nextLayer = new long[Math.max(16, layer.length * 2)];
+        int nextSize = 0;
+        for (long board : layer) {
+            int emptyCellIndex = Board.findEmpty(board);
+            metrics.addExpanded();
+            for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+                long child = Board.move(board, movedCellIndex, emptyCellIndex);
+                metrics.addGenerated();
+                if (visited.containsKey(child)) {
+                    metrics.addDuplicates(1);
+                    continue;
+                }
+                visited.put(child, depth << CELL_BITS | emptyCellIndex);
+                if (nextSize == nextLayer.length) {
+                    nextLayer = Arrays.copyOf(nextLayer, nextSize << 1);
+                }
+                nextLayer[nextSize++] = child;
+            }
+        }
+        return Arrays.copyOf(nextLayer, nextSize);
+    }
+
+    /**
+     * @param layer   the layer just generated
+     * @param visited every board the side of the layer reached
+     * @param other   every board the other side reached
+     * @return the board of the layer on the shortest path through both sides, NOT_FOUND if they do not meet
+     */
+    private static long bestMeeting(long[] layer, LongIntHashMap visited, LongIntHashMap other) {
+        long meetingBoard = NOT_FOUND;
+        int bestCost = Integer.MAX_VALUE;
+        for (long board : layer) {
+            int otherEntry = other.get(board, -1);
+            if (otherEntry >= 0) {
+                int cost = (visited.get(board, 0) >>> CELL_BITS) + (otherEntry >>> CELL_BITS);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    meetingBoard = board;
+                }
+            }
+        }
+        return meetingBoard;
+    }
+
+    /**
+     * Rebuild the moves through the meeting board and apply them to a copy of the initial state
+     *
+     * @param rootGameState the initial game state
+     * @param meetingBoard  a board both sides reached
+     * @return the goal state, with its steps taken
+     */
+    private GameState replay(GameState rootGameState, long meetingBoard) {
+        // Forward half, walked from the meeting board back to the initial board
+        int[] forwardMoves = new int[forwardVisited.get(meetingBoard, 0) >>> CELL_BITS];
+        long board = meetingBoard;
+        for (int i = forwardMoves.length - 1; i >= 0; i--) {
+            int emptyCellIndex = Board.findEmpty(board);
+            int previousEmptyCell = forwardVisited.get(board, 0) & NO_PREVIOUS_CELL;
+            forwardMoves[i] = emptyCellIndex;
+            board = Board.move(board, previousEmptyCell, emptyCellIndex);
+        }
+
+        GameState goalState = rootGameState.clone();
+        for (int movedCellIndex : forwardMoves) {
+            goalState.moveCandyAt(movedCellIndex);
+        }
+        // Backward half: the board a backward entry came from is one move closer to a goal
+        board = meetingBoard;
+        int entry;
+        while (((entry = backwardVisited.get(board, 0)) & NO_PREVIOUS_CELL) != NO_PREVIOUS_CELL) {
+            int nextEmptyCell = entry & NO_PREVIOUS_CELL;
+            goalState.moveCandyAt(nextEmptyCell);
+            board = Board.move(board, nextEmptyCell, Board.findEmpty(board));
+        }
+        Bot.computeHeuristicValue(goalState);
+        return goalState;
+    }
+}
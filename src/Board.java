@@ -0,0 +1,154 @@
+/**
+ * Static helpers for the packed board encoding used by {@link GameState}
+ * The 15 cells are stored in a single long, 3 bits per cell, with cell A in the most significant position
+ * so comparing two encodings orders the boards exactly like comparing their toString() forms
+ */
+public final class Board {
+    public static final int CELL_COUNT = 15;
+    public static final int ROW_COUNT = 3;
+    public static final int ROW_LENGTH = 5;
+    public static final int BITS_PER_CELL = 3;
+    public static final int CODE_COUNT = 8;
+    public static final long CELL_MASK = 0x7L;
+    public static final long ROW_MASK = 0x7FFFL;
+    public static final long BOARD_MASK = (1L << (CELL_COUNT * BITS_PER_CELL)) - 1;
+
+    // Candy codes, ordered like the characters they are displayed with
+    public static final int EMPTY = 0;
+    private static final char[] CODE_TO_CHAR = {' ', 'b', 'g', 'p', 'r', 'w', 'y', '?'};
+    private static final byte[] CHAR_TO_CODE = new byte[128];
+
+    static {
+        java.util.Arrays.fill(CHAR_TO_CODE, (byte) -1);
+        for (int code = 1; code < CODE_TO_CHAR.length - 1; code++) {
+            CHAR_TO_CODE[CODE_TO_CHAR[code]] = (byte) code;
+        }
+        CHAR_TO_CODE[' '] = EMPTY;
+        CHAR_TO_CODE[Config.GAME_RULES.CANDY.e.getChar()] = EMPTY;
+    }
+
+    private Board() {
+    }
+
+    /**
+     * Get the bit offset of a cell inside the packed board
+     *
+     * @param cellIndex the cell index
+     * @return the offset of the lowest bit of the cell
+     */
+    public static int shiftOf(int cellIndex) {
+        return (CELL_COUNT - 1 - cellIndex) * BITS_PER_CELL;
+    }
+
+    /**
+     * Get the candy code stored in a cell
+     *
+     * @param board     the packed board
+     * @param cellIndex the cell index
+     * @return the candy code
+     */
+    public static int get(long board, int cellIndex) {
+        return (int) ((board >>> shiftOf(cellIndex)) & CELL_MASK);
+    }
+
+    /**
+     * Store a candy code in a cell
+     *
+     * @param board     the packed board
+     * @param cellIndex the cell index
+     * @param code      the candy code
+     * @return the new packed board
+     */
+    public static long set(long board, int cellIndex, int code) {
+        int shift = shiftOf(cellIndex);
+        return (board & ~(CELL_MASK << shift)) | ((long) code << shift);
+    }
+
+    /**
+     * Move the candy at a cell into the empty cell
+     * The caller is responsible for checking that the move is valid
+     *
+     * @param board          the packed board
+     * @param movedCellIndex the cell holding the moved candy
+     * @param emptyCellIndex the cell that is currently empty
+     * @return the new packed board
+     */
+    public static long move(long board, int movedCellIndex, int emptyCellIndex) {
+        int movedShift = shiftOf(movedCellIndex);
+        long code = (board >>> movedShift) & CELL_MASK;
+        return (board & ~(CELL_MASK << movedShift)) | (code << shiftOf(emptyCellIndex));
+    }
+
+    /**
+     * Get the 15 bits holding one row, cell of column 0 in the most significant position
+     *
+     * @param board    the packed board
+     * @param rowIndex the row index
+     * @return the packed row
+     */
+    public static int getRow(long board, int rowIndex) {
+        return (int) ((board >>> ((ROW_COUNT - 1 - rowIndex) * ROW_LENGTH * BITS_PER_CELL)) & ROW_MASK);
+    }
+
+    /**
+     * Check if a packed board is a goal board
+     *
+     * @param board the packed board
+     * @return true if the top and bottom row are identical, false otherwise
+     */
+    public static boolean isGoal(long board) {
+        return getRow(board, 0) == getRow(board, 2);
+    }
+
+    /**
+     * Find the empty cell of a packed board
+     *
+     * @param board the packed board
+     * @return the index of the empty cell, -1 if there is none
+     */
+    public static int findEmpty(long board) {
+        for (int i = 0; i < CELL_COUNT; i++) {
+            if (get(board, i) == EMPTY) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the candy code of a character, 'e' and ' ' both stand for the empty cell
+     *
+     * @param candyChar the candy character
+     * @return the candy code, -1 if the character is not a candy
+     */
+    public static int toCode(char candyChar) {
+        return candyChar < CHAR_TO_CODE.length ? CHAR_TO_CODE[candyChar] : -1;
+    }
+
+    /**
+     * Get the character a candy code is displayed with
+     *
+     * @param code the candy code
+     * @return the candy character, ' ' for the empty cell
+     */
+    public static char toChar(int code) {
+        return CODE_TO_CHAR[code];
+    }
+
+    /**
+     * Build the same space separated string as {@link GameState#toString()}
+     *
+     * @param board the packed board
+     * @return the string form of the board
+     */
+    public static String toString(long board) {
+        char[] chars = new char[CELL_COUNT * 2 - 1];
+        for (int i = 0; i < CELL_COUNT; i++) {
+            chars[i * 2] = toChar(get(board, i));
+            if (i > 0) {
+                chars[i * 2 - 1] = ' ';
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Decode input lines straight into packed boards, see Board
+ * A line holds the 15 candy letters of cells A to O, separated by any whitespace. Nothing is allocated
+ * unless the line is invalid, so millions of lines cost no garbage
+ */
+public final class BoardParser {
+    private static final byte INVALID = -1;
+    private static final byte SEPARATOR = -2;
+    private static final byte[] CODE_OF_CHAR = new byte[128]; // Candy code of each ASCII character
+
+    static {
+        java.util.Arrays.fill(CODE_OF_CHAR, INVALID);
+        for (int c = 0; c <= ' '; c++) {
+            CODE_OF_CHAR[c] = SEPARATOR; // Same characters as String.trim()
+        }
+        for (Config.GAME_RULES.CANDY candy : Config.GAME_RULES.CANDY.values()) {
+            CODE_OF_CHAR[candy.getChar()] = (byte) Board.toCode(candy.getChar());
+        }
+    }
+
+    private BoardParser() {
+    }
+
+    /**
+     * @param c a character
+     * @return true if the character is one of the candy letters of Config.GAME_RULES.CANDY
+     */
+    public static boolean isCandyChar(char c) {
+        return c < CODE_OF_CHAR.length && CODE_OF_CHAR[c] >= 0;
+    }
+
+    /**
+     * @param line the candy letters of a board
+     * @return the packed board
+     *
+     * @throws InvalidBoardException if the line holds another character, not 15 candies or not one empty cell
+     */
+    public static long parse(CharSequence line) {
+        long board = 0L;
+        int cellCount = 0;
+        int emptyCount = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int code = c < CODE_OF_CHAR.length ? CODE_OF_CHAR[c] : INVALID;
+            if (code == SEPARATOR) {
+                continue;
+            }
+            if (code == INVALID) {
+                throw invalidCandy(c, i);
+            }
+            if (cellCount == Board.CELL_COUNT) {
+                throw tooManyCandies();
+            }
+            board = Board.set(board, cellCount++, code);
+            if (code == Board.EMPTY) {
+                emptyCount++;
+            }
+        }
+        return checkCounts(board, cellCount, emptyCount);
+    }
+
+    private static long checkCounts(long board, int cellCount, int emptyCount) {
+        if (cellCount != Board.CELL_COUNT) {
+            throw new InvalidBoardException("Expected " + Board.CELL_COUNT + " candies, found " + cellCount);
+        }
+        if (emptyCount != 1) {
+            throw new InvalidBoardException("Expected one empty cell, found " + emptyCount);
+        }
+        return board;
+    }
+
+    private static InvalidBoardException invalidCandy(char c, int position) {
+        return new InvalidBoardException(Config.GAME_RULES.INVALID_CANDY + " '" + c + "' at position " + position);
+    }
+
+    private static InvalidBoardException tooManyCandies() {
+        return new InvalidBoardException("Expected " + Board.CELL_COUNT + " candies, found more");
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Perfect ranking of the packed boards holding a fixed multiset of candies
+ * Every board with the same candies gets a distinct rank in [0, size()), so tables over all those boards
+ * can be plain arrays indexed by rank
+ *
+ * Candy codes are grouped into classes: boards that only differ by swapping candies of one class get the
+ * same rank, which is how abstracted boards (see PatternDatabase) are ranked straight from full boards
+ */
+public final class BoardRanker {
+    private static final long[][] BINOMIALS = new long[Board.CELL_COUNT + 1][Board.CELL_COUNT + 1];
+
+    static {
+        for (int n = 0; n <= Board.CELL_COUNT; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    private final int[] classOfCode; // Class of each candy code
+    private final int[] classes; // Classes holding at least one candy, in ranking order
+    private final int[] classSizes; // Number of cells of each of those classes
+    private final int[] representativeCodes; // Code written for each of those classes by unrank
+    private final long[] radices; // Number of ways each class can be placed in the cells the previous ones left
+    private final long size;
+
+    /**
+     * Rank boards with exactly the given candies, every candy code is its own class
+     *
+     * @param candiesCount the number of cells holding each candy code
+     */
+    public BoardRanker(int[] candiesCount) {
+        this(candiesCount, identityClasses());
+    }
+
+    /**
+     * @param candiesCount the number of cells holding each candy code
+     * @param classOfCode  the class of each candy code, codes of one class are interchangeable
+     */
+    public BoardRanker(int[] candiesCount, int[] classOfCode) {
+        if (candiesCount.length != Board.CODE_COUNT || classOfCode.length != Board.CODE_COUNT) {
+            throw new IllegalArgumentException("Expected one entry per candy code");
+        }
+        this.classOfCode = classOfCode.clone();
+
+        int[] classCounts = new int[Board.CODE_COUNT];
+        int[] classCodes = new int[Board.CODE_COUNT];
+        int totalCount = 0;
+        for (int code = Board.CODE_COUNT - 1; code >= 0; code--) {
+            classCounts[classOfCode[code]] += candiesCount[code];
+            if (candiesCount[code] > 0) {
+                classCodes[classOfCode[code]] = code;
+            }
+            totalCount += candiesCount[code];
+        }
+        if (totalCount != Board.CELL_COUNT) {
+            throw new IllegalArgumentException("A board holds " + Board.CELL_COUNT + " candies, not " + totalCount);
+        }
+
+        int classCount = 0;
+        for (int count : classCounts) {
+            if (count > 0) {
+                classCount++;
+            }
+        }
+        classes = new int[classCount];
+        classSizes = new int[classCount];
+        representativeCodes = new int[classCount];
+        radices = new long[classCount];
+
+        int freeCells = Board.CELL_COUNT;
+        long product = 1;
+        for (int i = 0, c = 0; c < Board.CODE_COUNT; c++) {
+            if (classCounts[c] > 0) {
+                classes[i] = c;
+                classSizes[i] = classCounts[c];
+                representativeCodes[i] = classCodes[c];
+                radices[i] = BINOMIALS[freeCells][classCounts[c]];
+                product *= radices[i];
+                freeCells -= classCounts[c];
+                i++;
+            }
+        }
+        size = product;
+    }
+
+    /**
+     * Get the number of distinct boards, ranks range from 0 to size() - 1
+     *
+     * @return the number of boards
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Rank a board, the board must hold the candies this ranker was built for
+     * Each class in turn picks its cells among those left by the previous classes; the rank is the mixed
+     * radix number made of the combination rank of every pick
+     *
+     * @param board the packed board
+     * @return the rank of the board
+     */
+    public long rank(long board) {
+        long rank = 0;
+        int freeMask = (1 << Board.CELL_COUNT) - 1;
+        // The last class takes whatever cells are left, its pick has a single possible rank
+        for (int i = 0; i < classes.length - 1; i++) {
+            int classMask = cellsOfClass(board, classes[i]);
+            long combinationRank = 0;
+            int k = 1;
+            for (int cells = classMask; cells != 0; cells &= cells - 1) {
+                int cell = Integer.numberOfTrailingZeros(cells);
+                int position = Integer.bitCount(freeMask & ((1 << cell) - 1));
+                combinationRank += BINOMIALS[position][k++];
+            }
+            rank = rank * radices[i] + combinationRank;
+            freeMask &= ~classMask;
+        }
+        return rank;
+    }
+
+    /**
+     * Build the board of a rank, each class is written with one of its candy codes
+     *
+     * @param rank the rank
+     * @return the packed board
+     */
+    public long unrank(long rank) {
+        long[] combinationRanks = new long[classes.length];
+        for (int i = classes.length - 1; i >= 0; i--) {
+            combinationRanks[i] = rank % radices[i];
+            rank /= radices[i];
+        }
+
+        long board = 0L;
+        int freeMask = (1 << Board.CELL_COUNT) - 1;
+        for (int i = 0; i < classes.length; i++) {
+            long combinationRank = combinationRanks[i];
+            int classMask = 0;
+            // Largest position first: the biggest binomial not above what is left of the rank
+            int position = Integer.bitCount(freeMask) - 1;
+            for (int k = classSizes[i]; k >= 1; k--) {
+                while (BINOMIALS[position][k] > combinationRank) {
+                    position--;
+                }
+                combinationRank -= BINOMIALS[position][k];
+                classMask |= 1 << nthSetBit(freeMask, position);
+                position--;
+            }
+            for (int cells = classMask; cells != 0; cells &= cells - 1) {
+                board = Board.set(board, Integer.numberOfTrailingZeros(cells), representativeCodes[i]);
+            }
+            freeMask &= ~classMask;
+        }
+        return board;
+    }
+
+    /**
+     * @param board      the packed board
+     * @param classIndex the class
+     * @return a mask with bit i set when cell i holds a candy of the class
+     */
+    private int cellsOfClass(long board, int classIndex) {
+        int mask = 0;
+        for (int cell = 0; cell < Board.CELL_COUNT; cell++) {
+            if (classOfCode[Board.get(board, cell)] == classIndex) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    private static int nthSetBit(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    private static int[] identityClasses() {
+        int[] classOfCode = new int[Board.CODE_COUNT];
+        for (int code = 0; code < Board.CODE_COUNT; code++) {
+            classOfCode[code] = code;
+        }
+        return classOfCode;
+    }
+}
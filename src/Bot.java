@@ -1,12 +1,43 @@
-import java.util.*;
+import java.io.IOException;
 
-public class Bot {
-    private OpenList openList;
-    private HashSet<String> closedList;
+public class Bot implements SearchEngine {
+    private static final int CHECKPOINT_CHECK_INTERVAL = 1024; // Game states processed between clock reads
+    
+    private Frontier openList;
+    private LongHashSet closedList; // Packed boards of the processed game states, canonical under symmetry reduction
+    private final boolean canonicalKeys;
+    private PatternHeuristic patternHeuristic; // Null when Config.SEARCH.USE_PATTERN_DATABASE is off
+    private final SearchMetrics metrics = new SearchMetrics();
+    private boolean checkpointing; // Config.SEARCH.USE_SEARCH_CHECKPOINTS, until another search holds the board
+    private SearchCheckpoint checkpoint; // Null until the first checkpoint is resumed or due
+    private long nextCheckpointTime;
     
     public Bot() {
-        openList = new OpenList();
-        closedList = new HashSet<>();
+        this(Config.SEARCH.USE_BUCKET_QUEUE
+                ? new BucketOpenList(Config.SEARCH.BUCKET_TIE_BREAK, Config.SEARCH.USE_SYMMETRY_REDUCTION)
+                : new OpenList(Config.SEARCH.USE_SYMMETRY_REDUCTION),
+                Config.SEARCH.USE_SYMMETRY_REDUCTION);
+    }
+    
+    /**
+     * @param openList the empty frontier the search keeps its open game states in
+     */
+    public Bot(Frontier openList) {
+        this(openList, false);
+    }
+    
+    /**
+     * Symmetry reduction only changes which boards count as duplicates: the game states kept are still
+     * real boards reached along real paths, so the solution needs no mapping back
+     *
+     * @param openList      the empty frontier the search keeps its open game states in
+     * @param canonicalKeys treat boards that are images of each other under Symmetry as the same game state,
+     *                      the frontier must be keyed the same way
+     */
+    public Bot(Frontier openList, boolean canonicalKeys) {
+        this.openList = openList;
+        this.canonicalKeys = canonicalKeys;
+        closedList = new LongHashSet();
     }
     
     /**
@@ -14,41 +45,165 @@ public class Bot {
      *
      * @param rootGameState the initial game state
      */
+    @Override
     public GameState play(GameState rootGameState) {
-        openList.addNewItem(rootGameState);
+        metrics.start();
+        try {
+            return search(rootGameState);
+        } finally {
+            metrics.addDuplicates(openList.getDuplicateCount());
+            metrics.setPeakSizes(openList.getPeakSize(), closedList.size());
+            metrics.stop();
+            closeCheckpoint();
+        }
+    }
+    
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * @return true when the search used the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return patternHeuristic != null;
+    }
+    
+    private GameState search(GameState rootGameState) {
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState);
+        if (patternHeuristic != null) {
+            rootGameState.setHeuristicValue(patternHeuristic.estimate(rootGameState.getBoard()));
+        } else {
+            computeHeuristicValue(rootGameState);
+        }
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+        if (!resume(rootGameState)) {
+            openList.addNewItem(rootGameState);
+        }
         
         while (!openList.isEmpty()) {
             GameState bestNewState = openList.pollFirstItem();
             if (bestNewState != null && !isAlreadyProcessed(bestNewState)) {
                 if (!bestNewState.isGoalState()) {
                     processState(bestNewState);
+                    if (checkpointing && metrics.getExpandedCount() % CHECKPOINT_CHECK_INTERVAL == 0
+                            && System.nanoTime() - nextCheckpointTime >= 0) {
+                        saveCheckpoint(rootGameState);
+                    }
                 } else {
+                    deleteCheckpoint();
                     return bestNewState;
                 }
             }
         }
         
+        deleteCheckpoint();
         return null;
     }
     
+    /**
+     * Fill the open and closed lists from the checkpoint of an earlier search of the same board, if any
+     * Searches that end before their first checkpoint is due never touch the checkpoint directory
+     *
+     * @param rootGameState the initial game state
+     * @return true if the search resumes from a checkpoint, false if it starts from the initial state
+     */
+    private boolean resume(GameState rootGameState) {
+        checkpointing = Config.SEARCH.USE_SEARCH_CHECKPOINTS;
+        nextCheckpointTime = System.nanoTime() + Config.SEARCH.CHECKPOINT_INTERVAL_MILLIS * 1_000_000L;
+        if (!checkpointing || !SearchCheckpoint.exists(rootGameState.getBoard()) || !openCheckpoint(rootGameState)) {
+            return false;
+        }
+        try {
+            return checkpoint.restore(openList, closedList);
+        } catch (IOException e) {
+            System.err.println("Ignoring checkpoint " + checkpoint.getFile() + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Lock the checkpoint of the search. Another search of the same board running at the same time keeps it,
+     * this one then runs without checkpoints
+     *
+     * @param rootGameState the initial game state
+     * @return true if the checkpoint is held, false if the search goes on without
+     */
+    private boolean openCheckpoint(GameState rootGameState) {
+        try {
+            checkpoint = SearchCheckpoint.open(rootGameState.getBoard(), canonicalKeys, patternHeuristic != null);
+        } catch (IOException e) {
+            System.err.println("Searching without checkpoints: " + e.getMessage());
+        }
+        checkpointing = checkpoint != null;
+        return checkpointing;
+    }
+    
+    private void saveCheckpoint(GameState rootGameState) {
+        if (checkpoint == null && !openCheckpoint(rootGameState)) {
+            return;
+        }
+        try {
+            checkpoint.save(openList, closedList);
+        } catch (IOException e) {
+            System.err.println("Cannot save checkpoint " + checkpoint.getFile() + ": " + e.getMessage());
+        }
+        nextCheckpointTime = System.nanoTime() + Config.SEARCH.CHECKPOINT_INTERVAL_MILLIS * 1_000_000L;
+    }
+    
+    private void deleteCheckpoint() {
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            checkpoint.delete();
+        } catch (IOException e) {
+            System.err.println("Cannot delete checkpoint: " + e.getMessage());
+        }
+    }
+    
+    private void closeCheckpoint() {
+        if (checkpoint == null) {
+            return;
+        }
+        try {
+            checkpoint.close();
+        } catch (IOException e) {
+            System.err.println("Cannot unlock checkpoint: " + e.getMessage());
+        }
+        checkpoint = null;
+    }
+    
     /**
      * From the given state, generate all possible new states and add them to the open list, sorted by their h(n) + g(n)
      *
      * @param gameState the game state
      */
     private void processState(GameState gameState) {
-        closedList.add(gameState.toString());
-        ArrayList<Character> validMovesList = Config.GAME_RULES.getCellsMovableTo(gameState.getEmptyCellChar());
+        closedList.add(keyOf(gameState));
+        metrics.addExpanded();
+        int[] validMovesList = Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex());
 
-        for (char move : validMovesList) {
+        for (int move : validMovesList) {
 //            GameState childState = GameState.deepClone(gameState);
 //            GameState childState = new GameState(gameState);
             GameState childState = gameState.clone();
 //            childState.drawGameState();
             if (childState != null) {
                 childState.moveCandyAt(move);
+                metrics.addGenerated();
 //                childState.setParentState(gameState);
-                computeHeuristicValue(childState);
+                if (metrics.sampleHeuristic()) {
+                    long heuristicStartTime = System.nanoTime();
+                    evaluate(gameState, childState, move);
+                    metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+                } else {
+                    evaluate(gameState, childState, move);
+                }
 //                gameState.addNewChild(childState);
                 openList.addNewItem(childState);
             }
@@ -60,6 +215,21 @@ public class Bot {
 //        System.out.print(openList.getSize());
     }
     
+    /**
+     * Store the heuristic value of a child state, from the pattern databases or updated from its parent's
+     *
+     * @param parentState the game state the move was made from
+     * @param childState  the game state after the move
+     * @param move        the cell index of the moved candy
+     */
+    private void evaluate(GameState parentState, GameState childState, int move) {
+        if (patternHeuristic != null) {
+            childState.setHeuristicValue(patternHeuristic.estimate(childState.getBoard()));
+        } else {
+            updateHeuristicValue(parentState, childState, move);
+        }
+    }
+    
     /**
      * Check if a game state is processed before or not
      * There are many ways to get to a game state (different cost),
@@ -69,81 +239,43 @@ public class Bot {
      * @return true if it is processed before, false otherwise
      */
     private boolean isAlreadyProcessed(GameState gameState) {
-        return closedList.contains(gameState.toString());
+        if (closedList.contains(keyOf(gameState))) {
+            metrics.addDuplicates(1);
+            return true;
+        }
+        return false;
     }
     
-    public int computeHeuristicValue(GameState gameState) {
-        int hValue = heuristic1(gameState);
-        gameState.setHeuristicValue(hValue);
-        return hValue;
+    private long keyOf(GameState gameState) {
+        return canonicalKeys ? Symmetry.canonical(gameState.getBoard()) : gameState.getBoard();
     }
     
     /**
-     * Player could move any tile to any where
-     * Heuristic value is the minimum # of tiles need to move to reach goal state
+     * Compute the heuristic value of a game state from scratch and store it in the game state
      *
      * @param gameState the game state
      * @return the heuristic value
      */
-    private int heuristic1(GameState gameState) {
-        int heuristicValue = 0;
-//        int hasValidRow = gameState.hasValidRow();
-//        switch (hasValidRow) {
-//            case 0:
-//                heuristicValue += 10;
-////                break;
-//            case 1:
-//            case 2:
-//            case 3: {
-//                ArrayList<Character> row0 = gameState.getRow(0);
-//                ArrayList<Character> row2 = gameState.getRow(2);
-//                for (int i = 0; i < row0.size(); i++) {
-//                    if (row0.get(i) != row2.get(i))
-//                        heuristicValue++;
-//                }
-//                break;
-//            }
-//        }
-
-        // compare the Character in first row and third row one by one, if one of them is empty, search its neighbour,
-        // if its neighbour can match the opposite row, then plus 1. else plus 2. If none of them are empty, plus 2 as well
-        ArrayList<Character> row0 = gameState.getRow(0);
-        ArrayList<Character> row1 = gameState.getRow(1);
-        ArrayList<Character> row2 = gameState.getRow(2);
-        for (int i = 0; i < row0.size(); i++) {
-            if (row0.get(i) != row2.get(i)){
-                if(row0.get(i) == ' '){
-                    heuristicValue += getHeuristic(row0,row1,row2,i);
-                }
-                else if(row2.get(i) == ' '){
-                    heuristicValue += getHeuristic(row2,row1,row0,i);
-                }
-                else{
-                    heuristicValue += 2;
-                }
-
-            }
-        }
-        return heuristicValue;
+    public static int computeHeuristicValue(GameState gameState) {
+        int hValue = Heuristic.estimate(gameState.getBoard());
+        gameState.setHeuristicValue(hValue);
+        return hValue;
     }
-
+    
     /**
-     * @param row0
-     * @param row1
-     * @param row2
-     * @param i
-     * @return
+     * Compute the heuristic value of a child state from its parent's and store it in the child state
+     * Only the columns the move touched are re-evaluated, HeuristicTest checks it against a full evaluation
+     *
+     * @param parentState the game state the move was made from
+     * @param childState  the game state after the move
+     * @param move        the cell index of the moved candy
+     * @return the heuristic value
      */
-    private int getHeuristic(ArrayList<Character> row0, ArrayList<Character> row1,ArrayList<Character> row2,int i){
-        int heuristic = 0;
-        if(i-1>=0 && row0.get(i-1) == row2.get(i))
-            heuristic ++;
-        else if(i+1<=4 && row0.get(i+1) == row2.get(i))
-            heuristic ++;
-        else if(row1.get(i) == row2.get(i))
-            heuristic ++;
-        else
-            heuristic += 2;
-        return heuristic;
+    public static int updateHeuristicValue(GameState parentState, GameState childState, int move) {
+        int hValue = Heuristic.update(parentState.getHeuristicValue(), parentState.getBoard(), childState.getBoard(),
+                move, parentState.getEmptyCellIndex());
+        assert hValue == Heuristic.estimate(childState.getBoard()) : "Incremental heuristic differs on " + childState;
+        childState.setHeuristicValue(hValue);
+        return hValue;
     }
 }
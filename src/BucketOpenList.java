@@ -0,0 +1,225 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open list for integer f(n) values: one doubly linked bucket of game states per f(n) (or per f(n) and h(n)
+ * when preferring higher g(n)), so adding, replacing and polling are O(1) apart from skipping empty buckets
+ * The buckets grow on demand, so f(n) has no upper bound other than the bucket index fitting an int
+ */
+public class BucketOpenList implements Frontier {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int NONE = -1;
+
+    private final Config.SEARCH.TIE_BREAK tieBreak;
+    private final boolean canonicalKeys;
+    private LongIntHashMap mapping; // Keep track of the slot of the best object for each game state
+
+    // Game states live in slots, linked into their bucket through next/previous slot indexes
+    private GameState[] items;
+    private long[] keyOfSlot; // Duplicate detection key of each game state
+    private int[] nextSlot;
+    private int[] previousSlot;
+    private int[] bucketOfSlot;
+    private int freeSlot; // Head of the list of free slots, chained through nextSlot
+    private int slotCount;
+    private int size;
+    private int peakSize;
+    private long duplicateCount;
+
+    private int[] bucketHead;
+    private int[] bucketTail;
+    private int lowestBucket; // No bucket below this one holds a game state
+
+    public BucketOpenList() {
+        this(Config.SEARCH.BUCKET_TIE_BREAK);
+    }
+
+    public BucketOpenList(Config.SEARCH.TIE_BREAK tieBreak) {
+        this(tieBreak, false);
+    }
+
+    /**
+     * @param tieBreak      how game states sharing the same f(n) are ordered
+     * @param canonicalKeys treat boards that are images of each other under Symmetry as the same game state
+     */
+    public BucketOpenList(Config.SEARCH.TIE_BREAK tieBreak, boolean canonicalKeys) {
+        this.tieBreak = tieBreak;
+        this.canonicalKeys = canonicalKeys;
+        mapping = new LongIntHashMap(DEFAULT_CAPACITY);
+        items = new GameState[DEFAULT_CAPACITY];
+        keyOfSlot = new long[DEFAULT_CAPACITY];
+        nextSlot = new int[DEFAULT_CAPACITY];
+        previousSlot = new int[DEFAULT_CAPACITY];
+        bucketOfSlot = new int[DEFAULT_CAPACITY];
+        freeSlot = NONE;
+        bucketHead = new int[64];
+        bucketTail = new int[64];
+        Arrays.fill(bucketHead, NONE);
+        Arrays.fill(bucketTail, NONE);
+        lowestBucket = Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean addNewItem(GameState gameState) {
+        long key = canonicalKeys ? Symmetry.canonical(gameState.getBoard()) : gameState.getBoard();
+        int slot = mapping.get(key, NONE);
+        if (slot == NONE) {
+            slot = allocateSlot();
+            items[slot] = gameState;
+            keyOfSlot[slot] = key;
+            mapping.put(key, slot);
+            link(slot, bucketOf(gameState));
+            size++;
+            peakSize = Math.max(peakSize, size);
+            return true;
+        }
+        duplicateCount++;
+        if (gameState.getEstimatedTotalCost() < items[slot].getEstimatedTotalCost()) {
+            unlink(slot);
+            items[slot] = gameState;
+            link(slot, bucketOf(gameState));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public GameState pollFirstItem() {
+        if (size == 0) {
+            return null;
+        }
+        while (bucketHead[lowestBucket] == NONE) {
+            lowestBucket++;
+        }
+
+        int slot = bucketHead[lowestBucket];
+        GameState firstItem = items[slot];
+        unlink(slot);
+        mapping.remove(keyOfSlot[slot]);
+        items[slot] = null;
+        nextSlot[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+        return firstItem;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    @Override
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    @Override
+    public void forEachItem(Consumer<GameState> action) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (items[slot] != null) {
+                action.accept(items[slot]);
+            }
+        }
+    }
+
+    /**
+     * Get the bucket of a game state, buckets are polled in increasing order
+     *
+     * @param gameState the game state
+     * @return the bucket index
+     */
+    private int bucketOf(GameState gameState) {
+        int f = gameState.getEstimatedTotalCost();
+        if (f < 0) {
+            throw new IllegalArgumentException("Negative f(n): " + f);
+        }
+        if (tieBreak != Config.SEARCH.TIE_BREAK.HIGHER_G) {
+            return f;
+        }
+
+        // Triangular layout: every f owns buckets for h = 0..f, lowest h (highest g) first
+        int h = f - gameState.getActualCostToReach();
+        return Math.toIntExact((long) f * (f + 1) / 2 + h);
+    }
+
+    private void link(int slot, int bucket) {
+        if (bucket >= bucketHead.length) {
+            int oldLength = bucketHead.length;
+            int newLength = Math.max(oldLength << 1, bucket + 1);
+            bucketHead = Arrays.copyOf(bucketHead, newLength);
+            bucketTail = Arrays.copyOf(bucketTail, newLength);
+            Arrays.fill(bucketHead, oldLength, newLength, NONE);
+            Arrays.fill(bucketTail, oldLength, newLength, NONE);
+        }
+
+        bucketOfSlot[slot] = bucket;
+        if (tieBreak == Config.SEARCH.TIE_BREAK.FIFO) {
+            // Append at the tail, polled from the head
+            nextSlot[slot] = NONE;
+            previousSlot[slot] = bucketTail[bucket];
+            if (bucketTail[bucket] != NONE) {
+                nextSlot[bucketTail[bucket]] = slot;
+            } else {
+                bucketHead[bucket] = slot;
+            }
+            bucketTail[bucket] = slot;
+        } else {
+            // Push at the head, polled from the head
+            previousSlot[slot] = NONE;
+            nextSlot[slot] = bucketHead[bucket];
+            if (bucketHead[bucket] != NONE) {
+                previousSlot[bucketHead[bucket]] = slot;
+            } else {
+                bucketTail[bucket] = slot;
+            }
+            bucketHead[bucket] = slot;
+        }
+
+        if (bucket < lowestBucket) {
+            lowestBucket = bucket;
+        }
+    }
+
+    private void unlink(int slot) {
+        int bucket = bucketOfSlot[slot];
+        int next = nextSlot[slot];
+        int previous = previousSlot[slot];
+        if (previous != NONE) {
+            nextSlot[previous] = next;
+        } else {
+            bucketHead[bucket] = next;
+        }
+        if (next != NONE) {
+            previousSlot[next] = previous;
+        } else {
+            bucketTail[bucket] = previous;
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = nextSlot[slot];
+            return slot;
+        }
+        if (slotCount == items.length) {
+            int newLength = slotCount << 1;
+            items = Arrays.copyOf(items, newLength);
+            keyOfSlot = Arrays.copyOf(keyOfSlot, newLength);
+            nextSlot = Arrays.copyOf(nextSlot, newLength);
+            previousSlot = Arrays.copyOf(previousSlot, newLength);
+            bucketOfSlot = Arrays.copyOf(bucketOfSlot, newLength);
+        }
+        return slotCount++;
+    }
+}
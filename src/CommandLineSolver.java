@@ -0,0 +1,215 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch mode, used when Driver is started with arguments
+ * Boards are read one line at a time from a file or the standard input, and results are written in input order
+ * through one buffered writer, in the format of output.txt. Only a bounded window of puzzles is in flight at
+ * once, so memory stays the same whatever the size of the input
+ */
+public class CommandLineSolver {
+    static final String USAGE = "Usage: java Driver [--engine ENGINE] [--threads N] [--metrics FILE] INPUT OUTPUT"
+            + System.lineSeparator() + "INPUT and OUTPUT are file paths, or - for the standard input and output";
+    private static final String STANDARD_STREAM = "-";
+    private static final int WINDOW_PER_THREAD = 4; // Puzzles in flight per worker thread
+
+    private Config.SEARCH.ENGINE engine = Config.SEARCH.DEFAULT_ENGINE;
+    private int threads = Config.SEARCH.BATCH_THREADS;
+    private String inputPath;
+    private String outputPath;
+    private String metricsPath;
+
+    private BufferedWriter outputWriter;
+    private BufferedWriter metricsWriter; // Null without --metrics
+    private long noGamesPlayed;
+    private long numberOfMove;
+
+    /**
+     * Solve every board of the input given on the command line
+     *
+     * @param args the command line arguments
+     * @return the exit status: 0 on success, 1 if reading or writing failed, 2 for bad arguments
+     */
+    public static int run(String[] args) {
+        CommandLineSolver commandLineSolver = new CommandLineSolver();
+        try {
+            commandLineSolver.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            commandLineSolver.solveAll();
+            return 0;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        int i = 0;
+        while (i < args.length && args[i].startsWith("--")) {
+            String option = args[i++];
+            if (i == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[i++];
+            switch (option) {
+                case "--engine":
+                    try {
+                        engine = Config.SEARCH.ENGINE.valueOf(value.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown search engine " + value);
+                    }
+                    break;
+                case "--threads":
+                    try {
+                        threads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        threads = 0;
+                    }
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("Invalid thread count " + value);
+                    }
+                    break;
+                case "--metrics":
+                    metricsPath = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        if (args.length - i != 2) {
+            throw new IllegalArgumentException("Expected an input and an output");
+        }
+        inputPath = args[i];
+        outputPath = args[i + 1];
+    }
+
+    private void solveAll() throws IOException, InterruptedException {
+        SolutionCache solutionCache = SolutionCache.getShared();
+        InputStream inputStream = STANDARD_STREAM.equals(inputPath) ? System.in : new FileInputStream(inputPath);
+        OutputStream outputStream = STANDARD_STREAM.equals(outputPath) ? System.out : new FileOutputStream(outputPath);
+        BatchSolver batchSolver = threads > 1 ? new BatchSolver(engine, threads, false) : null;
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            outputWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (metricsPath != null) {
+                metricsWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(metricsPath), StandardCharsets.UTF_8));
+                metricsWriter.write(BatchSolver.Result.CSV_HEADER);
+                metricsWriter.newLine();
+            }
+
+            ArrayDeque<Future<BatchSolver.Result>> window = new ArrayDeque<>();
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (batchSolver == null) {
+                    try {
+                        writeResult(BatchSolver.solve(line, engine, solutionCache));
+                    } catch (InvalidBoardException e) {
+                        writeInvalidBoard(e.getMessage());
+                    }
+                    continue;
+                }
+                if (window.size() == threads * WINDOW_PER_THREAD) {
+                    writeNextResult(window.pollFirst());
+                }
+                window.addLast(batchSolver.submit(line));
+            }
+            while (!window.isEmpty()) {
+                writeNextResult(window.pollFirst());
+            }
+
+            outputWriter.write(String.valueOf(numberOfMove));
+            outputWriter.newLine();
+        } finally {
+            if (batchSolver != null) {
+                batchSolver.shutdown();
+            }
+            if (outputWriter != null) {
+                // Keep the standard output open for whoever else writes to it
+                if (outputStream == System.out) {
+                    outputWriter.flush();
+                } else {
+                    outputWriter.close();
+                }
+            }
+            if (metricsWriter != null) {
+                metricsWriter.close();
+            }
+        }
+        if (solutionCache != null) {
+            solutionCache.save();
+        }
+    }
+
+    /**
+     * @param future the pending result of the oldest puzzle in flight
+     */
+    private void writeNextResult(Future<BatchSolver.Result> future) throws IOException, InterruptedException {
+        try {
+            writeResult(BatchSolver.await(future));
+        } catch (InvalidBoardException e) {
+            writeInvalidBoard(e.getMessage());
+        }
+    }
+
+    /**
+     * Write why a board could not be read in place of its moves, so the output stays aligned with the input
+     *
+     * @param message the parse error, see BoardParser
+     */
+    private void writeInvalidBoard(String message) throws IOException {
+        noGamesPlayed++;
+        outputWriter.write(message);
+        outputWriter.newLine();
+        outputWriter.write("0ms");
+        outputWriter.newLine();
+    }
+
+    /**
+     * Write the moves and the time of one puzzle, like Driver does in output.txt
+     *
+     * @param result the result
+     */
+    private void writeResult(BatchSolver.Result result) throws IOException {
+        noGamesPlayed++;
+        GameState goalState = result.getGoalState();
+        if (goalState == null) {
+            outputWriter.write("No solution");
+        } else if (goalState.getActualCostToReach() == 0) {
+            outputWriter.write("No step has taken");
+        } else {
+            for (int movedCellIndex : goalState.getMovedCellIndexes()) {
+                outputWriter.write(Config.GAME_RULES.getCellCharByIndex(movedCellIndex));
+            }
+            numberOfMove += goalState.getActualCostToReach();
+        }
+        outputWriter.newLine();
+        outputWriter.write(result.getTimeTaken() + "ms " + result.getSolvedBy());
+        outputWriter.newLine();
+
+        if (metricsWriter != null) {
+            metricsWriter.write(result.toCsvRow(noGamesPlayed));
+            metricsWriter.newLine();
+        }
+    }
+}
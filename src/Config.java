@@ -1,5 +1,4 @@
 import java.util.ArrayList;
-import java.util.Arrays;
 
 public class Config {
     public static class GAME_RULES {
@@ -32,59 +31,56 @@ public class Config {
             return (int) cellChar - 65;
         }
         
+        // Cells whose candy can move into each cell, in the order moves are generated
+        private static final int[][] NEIGHBOURS = {
+                {1, 5}, {0, 6, 2}, {1, 7, 3}, {2, 8, 4}, {3, 9},
+                {0, 6, 10}, {1, 5, 11, 7}, {2, 6, 12, 8}, {3, 7, 13, 9}, {4, 8, 14},
+                {5, 11}, {10, 6, 12}, {11, 7, 13}, {12, 8, 14}, {13, 9}
+        };
+        // Bit i of NEIGHBOUR_MASKS[j] is set when cells i and j are adjacent
+        private static final int[] NEIGHBOUR_MASKS = new int[NEIGHBOURS.length];
+        
+        static {
+            for (int cellIndex = 0; cellIndex < NEIGHBOURS.length; cellIndex++) {
+                for (int neighbour : NEIGHBOURS[cellIndex]) {
+                    NEIGHBOUR_MASKS[cellIndex] |= 1 << neighbour;
+                }
+            }
+        }
+        
+        /**
+         * Get the cells whose candy can move into a cell
+         * The returned array is shared, callers must not modify it
+         *
+         * @param cellIndex the cell index
+         * @return the indexes of the neighbouring cells
+         */
+        public static int[] getNeighbourIndexes(int cellIndex) {
+            if (cellIndex < 0 || cellIndex > 14) {
+                throw new IllegalArgumentException(INVALID_INDEX);
+            }
+            return NEIGHBOURS[cellIndex];
+        }
+        
+        /**
+         * Check if the candy in one cell can move into another cell
+         *
+         * @param movedCellIndex the index of the cell holding the moved candy
+         * @param emptyCellIndex the index of the empty cell
+         * @return true if the two cells are adjacent, false otherwise
+         */
+        public static boolean isAdjacent(int movedCellIndex, int emptyCellIndex) {
+            return movedCellIndex >= 0 && movedCellIndex <= 14 && emptyCellIndex >= 0 && emptyCellIndex <= 14
+                    && (NEIGHBOUR_MASKS[emptyCellIndex] & (1 << movedCellIndex)) != 0;
+        }
+        
         public static ArrayList<Character> getCellsMovableTo(char cellChar) {
-            cellChar = Character.toUpperCase(cellChar);
-            Character cells[];
-            switch (cellChar) {
-                case 'A':
-                    cells = new Character[] {'B', 'F'};
-                    break;
-                case 'B':
-                    cells = new Character[] {'A', 'G', 'C'};
-                    break;
-                case 'C':
-                    cells = new Character[] {'B', 'H', 'D'};
-                    break;
-                case 'D':
-                    cells = new Character[] {'C', 'I', 'E'};
-                    break;
-                case 'E':
-                    cells = new Character[] {'D', 'J'};
-                    break;
-                case 'F':
-                    cells = new Character[] {'A', 'G', 'K'};
-                    break;
-                case 'G':
-                    cells = new Character[] {'B', 'F', 'L', 'H'};
-                    break;
-                case 'H':
-                    cells = new Character[] {'C', 'G', 'M', 'I'};
-                    break;
-                case 'I':
-                    cells = new Character[] {'D', 'H', 'N', 'J'};
-                    break;
-                case 'J':
-                    cells = new Character[] {'E', 'I', 'O'};
-                    break;
-                case 'K':
-                    cells = new Character[] {'F', 'L'};
-                    break;
-                case 'L':
-                    cells = new Character[] {'K', 'G', 'M'};
-                    break;
-                case 'M':
-                    cells = new Character[] {'L', 'H', 'N'};
-                    break;
-                case 'N':
-                    cells = new Character[] {'M', 'I', 'O'};
-                    break;
-                case 'O':
-                    cells = new Character[] {'N', 'J'};
-                    break;
-                default:
-                    throw new IllegalArgumentException(INVALID_CELLS);
+            int cellIndex = getCellIndexByChar(Character.toUpperCase(cellChar));
+            ArrayList<Character> cells = new ArrayList<>(NEIGHBOURS[cellIndex].length);
+            for (int neighbour : NEIGHBOURS[cellIndex]) {
+                cells.add(getCellCharByIndex(neighbour));
             }
-            return new ArrayList<>(Arrays.asList(cells));
+            return cells;
         }
     
         public static ArrayList<Character> getCellsMovableTo(int cellIndex) {
@@ -93,25 +89,14 @@ public class Config {
         }
         
         public static boolean isValidCandyChar(char candyChar) {
-            CANDY candies[] = CANDY.values();
-            for (CANDY candy : candies) {
-                if (candyChar == candy.getChar()) {
-                    return true;
-                }
-            }
-            return false;
+            return BoardParser.isCandyChar(candyChar);
         }
         
         public static boolean isValidMove(char movedCell, char emptyCell) {
 //            movedCell = Character.toUpperCase(movedCell);
             if (isValidCellChar(movedCell) && isValidCellChar(emptyCell)) {
-                ArrayList<Character> movableCells = getCellsMovableTo(emptyCell);
-                if (movableCells.contains(movedCell)) {
-                    return true;
-                } else {
-//                    System.out.println(INVALID_MOVE);
-                    return false;
-                }
+                // The moved cell has to be upper case, the empty cell may be either
+                return isAdjacent(movedCell - 65, Character.toUpperCase(emptyCell) - 65);
             } else {
                 return false;
             }
@@ -122,4 +107,79 @@ public class Config {
             return (cellChar >= 65 && cellChar <= 79);
         }
     }
+    
+    public static class SEARCH {
+        /**
+         * How a bucket frontier orders game states sharing the same f(n)
+         */
+        public enum TIE_BREAK {
+            HIGHER_G, // Deepest first, ties left after that are taken last in first out
+            LIFO,
+            FIFO
+        }
+        
+        /**
+         * The search algorithms a puzzle can be solved with, see SearchEngine.create
+         */
+        public enum ENGINE {
+            A_STAR,
+            PARALLEL_A_STAR,
+            IDA_STAR,
+            BIDIRECTIONAL,
+            ANYTIME,
+            DISTANCE_ORACLE,
+            EXTERNAL_A_STAR,
+            SMA_STAR
+        }
+        
+        public static final ENGINE DEFAULT_ENGINE = ENGINE.A_STAR;
+        
+        // Boards that are mirror images of each other share the same cost to a goal, search only one of them
+        // Sound as long as the heuristic gives the images equal values, see SymmetryTest. May pick other paths
+        public static final boolean USE_SYMMETRY_REDUCTION = false;
+        
+        public static final boolean USE_BUCKET_QUEUE = false;
+        public static final TIE_BREAK BUCKET_TIE_BREAK = TIE_BREAK.HIGHER_G;
+        
+        public static final int BATCH_THREADS = Runtime.getRuntime().availableProcessors();
+        public static final boolean BATCH_USE_VIRTUAL_THREADS = false;
+        
+        public static final int PARALLEL_SEARCH_THREADS = Runtime.getRuntime().availableProcessors();
+        
+        // Admissible pattern database heuristic, see PatternHeuristic. Makes A* optimal but changes its output
+        public static final boolean USE_PATTERN_DATABASE = false;
+        public static final long PATTERN_DATABASE_MAX_STATES = 1 << 21;
+        public static final String TABLE_DIRECTORY = "tables";
+        
+        // Time and node budgets of the anytime search, see AnytimeBot
+        public static final double[] ANYTIME_WEIGHTS = {3.0, 2.0, 1.5, 1.25, 1.0};
+        public static final long ANYTIME_TIME_BUDGET_MILLIS = 50;
+        public static final long ANYTIME_NODE_BUDGET = 200_000;
+        
+        // Solved boards, see SolutionCache
+        public static final boolean USE_SOLUTION_CACHE = true;
+        public static final int SOLUTION_CACHE_CAPACITY = 1 << 16;
+        public static final boolean PERSIST_SOLUTION_CACHE = true;
+        public static final String SOLUTION_CACHE_FILE = "solutions.cache";
+        
+        // Exhaustive distance tables, 4 bits per board, see DistanceOracle. Larger candy sets fall back to A*
+        public static final long DISTANCE_ORACLE_MAX_STATES = 1 << 25;
+        
+        // Layer files of the disk based search, see ExternalMemoryBot
+        public static final String EXTERNAL_SEARCH_DIRECTORY = System.getProperty("java.io.tmpdir");
+        public static final int EXTERNAL_SORT_BUFFER_ENTRIES = 1 << 20;
+        public static final int EXTERNAL_IO_BUFFER_BYTES = 1 << 16;
+        
+        // Heap the nodes of one memory bounded search may take, see SmaStarBot
+        public static final long SMA_STAR_MEMORY_BYTES = 64L << 20;
+        
+        // Snapshots of long A* searches, resumed after a restart, see SearchCheckpoint
+        // Saved under the working directory, with one lock file shared by every board
+        public static final boolean USE_SEARCH_CHECKPOINTS = false;
+        public static final long CHECKPOINT_INTERVAL_MILLIS = 60_000;
+        public static final String CHECKPOINT_DIRECTORY = "checkpoints";
+        
+        // Loopback port of the resident solver, see SolverServer
+        public static final int SERVER_PORT = 6721;
+    }
 }
@@ -0,0 +1,190 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Exact distance to the nearest goal of every board holding one multiset of candies, from a breadth first
+ * search backward from all the goal boards over the whole state space (retrograde analysis)
+ *
+ * Each board takes 4 bits, indexed by its BoardRanker rank, holding its distance modulo 15, 15 meaning not
+ * reachable. Neighbouring boards are at most one move apart in distance, so a neighbour holding the distance
+ * minus one modulo 15 is always one move closer to a goal, which is enough to walk down to a goal
+ */
+public class DistanceOracle {
+    private static final ConcurrentMap<String, DistanceOracle> LOADED = new ConcurrentHashMap<>();
+    private static final int MODULUS = 15;
+    private static final int UNREACHABLE = 0xF;
+
+    private final int[] candiesCount;
+    private final BoardRanker ranker;
+    private volatile ByteBuffer distances; // Two boards per byte, the even rank in the low bits. Loaded on first use
+
+    private DistanceOracle(int[] candiesCount) {
+        this.candiesCount = candiesCount;
+        ranker = new BoardRanker(candiesCount);
+    }
+
+    /**
+     * Get the oracle of a multiset of candies, shared by every solver of this JVM
+     *
+     * @param candiesCount the number of cells holding each candy code
+     * @return the oracle, null if the state space is above Config.SEARCH.DISTANCE_ORACLE_MAX_STATES
+     */
+    public static DistanceOracle forCandiesCount(int[] candiesCount) {
+        if (sizeOf(candiesCount) > Config.SEARCH.DISTANCE_ORACLE_MAX_STATES) {
+            return null;
+        }
+        final int[] counts = candiesCount.clone();
+        return LOADED.computeIfAbsent(Arrays.toString(counts), key -> new DistanceOracle(counts));
+    }
+
+    /**
+     * @param candiesCount the number of cells holding each candy code
+     * @return the number of boards holding these candies, two per byte of table
+     */
+    public static long sizeOf(int[] candiesCount) {
+        return new BoardRanker(candiesCount).size();
+    }
+
+    /**
+     * Walk down the table from a board to a goal
+     *
+     * @param board the packed board, holding the candies of this oracle
+     * @return the cell index of the candy moved at each step of a shortest solution, null if no goal is reachable
+     */
+    public int[] solve(long board) {
+        ByteBuffer table = getDistances();
+        int value = distanceOf(table, ranker.rank(board));
+        if (value == UNREACHABLE) {
+            return null;
+        }
+
+        int[] moves = new int[32];
+        int moveCount = 0;
+        while (!Board.isGoal(board)) {
+            int closerValue = (value + MODULUS - 1) % MODULUS;
+            int emptyCellIndex = Board.findEmpty(board);
+            for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+                long child = Board.move(board, movedCellIndex, emptyCellIndex);
+                if (distanceOf(table, ranker.rank(child)) == closerValue) {
+                    if (moveCount == moves.length) {
+                        moves = Arrays.copyOf(moves, moveCount << 1);
+                    }
+                    moves[moveCount++] = movedCellIndex;
+                    board = child;
+                    value = closerValue;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    private ByteBuffer getDistances() {
+        ByteBuffer loadedDistances = distances;
+        if (loadedDistances == null) {
+            synchronized (this) {
+                loadedDistances = distances;
+                if (loadedDistances == null) {
+                    loadedDistances = load(new File(Config.SEARCH.TABLE_DIRECTORY));
+                    distances = loadedDistances;
+                }
+            }
+        }
+        return loadedDistances;
+    }
+
+    /**
+     * Map the table from the table directory, building and saving it if it is missing or stale
+     *
+     * @param directory the table directory
+     * @return the table
+     */
+    private ByteBuffer load(File directory) {
+        File file = new File(directory, fileName(candiesCount));
+        long identity = TableFile.identityOf(candiesCount);
+        long length = (ranker.size() + 1) / 2;
+        if (file.isFile()) {
+            try {
+                return TableFile.map(file, TableFile.KIND_DISTANCE_TABLE, identity, length);
+            } catch (IOException e) {
+                System.err.println("Rebuilding distance table " + file + ": " + e.getMessage());
+            }
+        }
+
+        byte[] table = computeDistances();
+        try {
+            TableFile.write(file, TableFile.KIND_DISTANCE_TABLE, identity, table);
+            return TableFile.map(file, TableFile.KIND_DISTANCE_TABLE, identity, length);
+        } catch (IOException e) {
+            System.err.println("Cannot save distance table " + file + ": " + e.getMessage());
+            return ByteBuffer.wrap(table);
+        }
+    }
+
+    /**
+     * Layered breadth first search over the table itself: every pass scans the table for the boards of the last
+     * layer and marks their unreached neighbours, so no queue is needed. Boards of older layers with the same value
+     * modulo 15 are expanded again, but all their neighbours are already reached
+     *
+     * @return the table
+     */
+    private byte[] computeDistances() {
+        if (ranker.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many boards: " + ranker.size());
+        }
+        int size = (int) ranker.size();
+        byte[] table = new byte[(int) ((ranker.size() + 1) / 2)];
+        Arrays.fill(table, (byte) 0xFF);
+        for (long goal : GoalBoards.enumerate(candiesCount)) {
+            setDistance(table, ranker.rank(goal), 0);
+        }
+
+        boolean isGrowing = true;
+        for (int depth = 0; isGrowing; depth++) {
+            isGrowing = false;
+            int value = depth % MODULUS;
+            int nextValue = (depth + 1) % MODULUS;
+            for (int rank = 0; rank < size; rank++) {
+                if (getDistance(table, rank) != value) {
+                    continue;
+                }
+                long board = ranker.unrank(rank);
+                int emptyCellIndex = Board.findEmpty(board);
+                for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+                    long childRank = ranker.rank(Board.move(board, movedCellIndex, emptyCellIndex));
+                    if (getDistance(table, childRank) == UNREACHABLE) {
+                        setDistance(table, childRank, nextValue);
+                        isGrowing = true;
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int distanceOf(ByteBuffer table, long rank) {
+        return (table.get((int) (rank >>> 1)) >>> ((rank & 1) << 2)) & 0xF;
+    }
+
+    private static int getDistance(byte[] table, long rank) {
+        return (table[(int) (rank >>> 1)] >>> ((rank & 1) << 2)) & 0xF;
+    }
+
+    private static void setDistance(byte[] table, long rank, int value) {
+        int shift = (int) ((rank & 1) << 2);
+        int index = (int) (rank >>> 1);
+        table[index] = (byte) ((table[index] & ~(0xF << shift)) | (value << shift));
+    }
+
+    static String fileName(int[] candiesCount) {
+        StringBuilder stringBuilder = new StringBuilder("distances");
+        for (int count : candiesCount) {
+            stringBuilder.append('-').append(count);
+        }
+        return stringBuilder.append(".dtb").toString();
+    }
+}
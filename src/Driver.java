@@ -1,9 +1,28 @@
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 public class Driver {
+    private static final Scanner SCANNER = new Scanner(System.in);
+    
+    /**
+     * Without arguments, play from the interactive menu. With --serve, answer boards over a local socket,
+     * see SolverServer, otherwise solve a whole input file headless, see CommandLineSolver
+     *
+     * @param args the command line arguments
+     */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            int status = SolverServer.SERVE_OPTION.equals(args[0])
+                    ? SolverServer.run(Arrays.copyOfRange(args, 1, args.length))
+                    : CommandLineSolver.run(args);
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
         while (true) {
             int playMode = getPlayMode();
             switch (playMode) {
@@ -18,7 +37,21 @@ public class Driver {
                     break;
                 case 2:
                     try {
-                        aiMode();
+                        aiMode(Config.SEARCH.DEFAULT_ENGINE);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    break;
+                case 3:
+                    try {
+                        batchAiMode();
+                    } catch (IOException | InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                    break;
+                case 4:
+                    try {
+                        aiMode(getEngine());
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -53,10 +86,10 @@ public class Driver {
                 }
                 
                 if (cellToMove == Character.MIN_VALUE) { // 'exit'
-                    writeFile(null, 0);
+                    writeFile(null, 0, null);
                     return;
                 } else if (cellToMove == Character.MAX_VALUE) { // 'next'
-                    writeFile(null, 0);
+                    writeFile(null, 0, null);
                     break;
                 }
     
@@ -68,7 +101,7 @@ public class Driver {
                     
                     // Only write the result to files if the puzzle is solved
                     long endTime = System.currentTimeMillis();
-                    writeFile(gameState.getStepsTaken(), endTime - startTime);
+                    writeFile(gameState.getStepsTaken(), endTime - startTime, null);
                     
                     // when pass all the puzzles, write the steps to output.txt
                     if (noGamesPlayed == inputStringArray.size()) {
@@ -80,34 +113,27 @@ public class Driver {
         }
     }
     
-    private static void aiMode() throws IOException {
+    private static void aiMode(Config.SEARCH.ENGINE engine) throws IOException {
         ArrayList<String> inputStringArray = readFile();
+        SolutionCache solutionCache = SolutionCache.getShared();
         int numberOfMove = 0;
         int noGamesPlayed = 0;
         for (String inputString : inputStringArray) {
             noGamesPlayed++;
-            long startTime = System.currentTimeMillis();
-            GameState gameState = new GameState(inputString);
 //            System.out.println("=======================");
 //            System.out.println("======NEW  PUZZLE======");
 //            System.out.println("=======================");
-//            gameState.drawGameState();
-            Bot bot = new Bot();
-            GameState goalState = bot.play(gameState);
+            BatchSolver.Result result = BatchSolver.solve(inputString, engine, solutionCache);
+            GameState goalState = result.getGoalState();
 
             if (goalState != null) {
-//                for(Character character: goalState.getStepsTaken()){
-//                    gameState.moveCandyAt(character);
-//                    gameState.printStepsTaken();
-//                    gameState.drawGameState();
-//                }
 //                goalState.drawGameState();
 //                goalState.printStepsTaken();
                 numberOfMove += goalState.getStepsTaken().size();
                 
                 // Only write the result to files if the puzzle is solved
-                long endTime = System.currentTimeMillis();
-                writeFile(goalState.getStepsTaken(), endTime - startTime);
+                writeFile(goalState.getStepsTaken(), result.getTimeTaken(), result.getSolvedBy());
+                writeMetrics(noGamesPlayed, result);
                 
                 // when pass all the puzzles, write the steps to output.txt
                 if (noGamesPlayed == inputStringArray.size()) {
@@ -115,6 +141,44 @@ public class Driver {
                 }
             }
         }
+        if (solutionCache != null) {
+            solutionCache.save();
+        }
+    }
+    
+    /**
+     * Same as the AI mode, but the puzzles are solved in parallel by a BatchSolver
+     * Results are still written in input order
+     */
+    private static void batchAiMode() throws IOException, InterruptedException {
+        ArrayList<String> inputStringArray = readFile();
+        BatchSolver batchSolver = new BatchSolver();
+        List<BatchSolver.Result> results;
+        try {
+            results = batchSolver.solveAll(inputStringArray);
+        } finally {
+            batchSolver.shutdown();
+        }
+        
+        int numberOfMove = 0;
+        int noGamesPlayed = 0;
+        for (BatchSolver.Result result : results) {
+            noGamesPlayed++;
+            GameState goalState = result.getGoalState();
+            if (goalState != null) {
+                numberOfMove += goalState.getStepsTaken().size();
+                writeFile(goalState.getStepsTaken(), result.getTimeTaken(), result.getSolvedBy());
+                writeMetrics(noGamesPlayed, result);
+                
+                // when pass all the puzzles, write the steps to output.txt
+                if (noGamesPlayed == results.size()) {
+                    writeNumber(numberOfMove);
+                }
+            }
+        }
+        if (SolutionCache.getShared() != null) {
+            SolutionCache.getShared().save();
+        }
     }
     
     /**
@@ -126,11 +190,10 @@ public class Driver {
         while (true) {
             displayMainMenu();
             
-            Scanner scanner = new Scanner(System.in);
             int input;
             try {
-                input = Integer.parseInt(scanner.nextLine());
-                if (input == 0 || input == 1 || input == 2) {
+                input = Integer.parseInt(SCANNER.nextLine().trim());
+                if (input >= 0 && input <= 4) {
                     return input;
                 }
             } catch (NumberFormatException ignored) {
@@ -147,14 +210,39 @@ public class Driver {
         System.out.println("0. Quit");
         System.out.println("1. Play manually");
         System.out.println("2. AI play");
+        System.out.println("3. AI play, all puzzles in parallel");
+        System.out.println("4. AI play, choose the search engine");
         System.out.print("Your choice: ");
     }
     
+    /**
+     * Let user choose the search engine used by the AI
+     *
+     * @return the chosen search engine
+     */
+    private static Config.SEARCH.ENGINE getEngine() {
+        Config.SEARCH.ENGINE[] engines = Config.SEARCH.ENGINE.values();
+        while (true) {
+            System.out.println();
+            for (int i = 0; i < engines.length; i++) {
+                System.out.println(i + ". " + engines[i]);
+            }
+            System.out.print("Search engine: ");
+            
+            try {
+                int input = Integer.parseInt(SCANNER.nextLine().trim());
+                if (input >= 0 && input < engines.length) {
+                    return engines[input];
+                }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+    
     private static char getPlayerInstruction() {
         while (true) {
             System.out.print("Enter the cell to move (or 'exit or 'next'): ");
-            Scanner scanner = new Scanner(System.in);
-            String input = scanner.nextLine();
+            String input = SCANNER.nextLine();
             if (input.compareTo("") != 0) {
                 if (input.compareTo("exit") == 0) {
                     return Character.MIN_VALUE;
@@ -191,10 +279,11 @@ public class Driver {
      *
      * @param stepsTaken the steps of move
      * @param time       the time you use to pass the puzzle
+     * @param solvedBy   what produced the steps, written after the time, null when played manually
      *
      * @throws IOException some files may not be found
      */
-    private static void writeFile(ArrayList<Character> stepsTaken, long time) throws IOException {
+    private static void writeFile(ArrayList<Character> stepsTaken, long time, String solvedBy) throws IOException {
         File outputFile = new File("output.txt");
         outputFile.createNewFile();
         BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(outputFile, true));
@@ -208,6 +297,30 @@ public class Driver {
         
         bufferedWriter.newLine();
         bufferedWriter.write(String.valueOf(time) + "ms");
+        if (solvedBy != null) {
+            bufferedWriter.write(" " + solvedBy);
+        }
+        bufferedWriter.newLine();
+        bufferedWriter.close();
+    }
+    
+    /**
+     * write the search counters of a puzzle as one line of metrics.csv, next to output.txt
+     *
+     * @param puzzleNumber the position of the puzzle in the input file, from 1
+     * @param result       the result of the puzzle
+     *
+     * @throws IOException some files may not be found
+     */
+    private static void writeMetrics(int puzzleNumber, BatchSolver.Result result) throws IOException {
+        File metricsFile = new File("metrics.csv");
+        boolean isNewFile = metricsFile.createNewFile() || metricsFile.length() == 0;
+        BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(metricsFile, true));
+        if (isNewFile) {
+            bufferedWriter.write(BatchSolver.Result.CSV_HEADER);
+            bufferedWriter.newLine();
+        }
+        bufferedWriter.write(result.toCsvRow(puzzleNumber));
         bufferedWriter.newLine();
         bufferedWriter.close();
     }
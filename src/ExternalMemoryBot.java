@@ -0,0 +1,491 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A* with its open and closed lists on disk, for state spaces larger than the heap
+ *
+ * The search is breadth first, one layer of game states per number of moves, pruning every game state whose
+ * g(n) + h(n) is above a cost bound (breadth first heuristic search). Each layer is a file of packed boards
+ * sorted in increasing order. The children of a layer are sorted in memory one run at a time, then the runs
+ * are merged, dropping duplicate boards and boards of the two previous layers as they stream past (delayed
+ * duplicate detection): a board one move away from the current layer can only be in one of these three
+ * layers. If no goal is found under the bound, the search starts over with the lowest pruned cost
+ *
+ * Every entry holds the board in its high bits and the empty cell index of its parent in its low 4 bits, so
+ * the path to a goal is read back from the layer files with one binary search per move
+ */
+public class ExternalMemoryBot implements SearchEngine {
+    private static final int PARENT_BITS = 4;
+    private static final long PARENT_MASK = (1L << PARENT_BITS) - 1;
+    private static final int NO_PARENT = (int) PARENT_MASK;
+    private static final long NO_GOAL = -1L;
+
+    private final File directory;
+    private final int sortBufferEntries;
+    private final boolean usePatternDatabase;
+    private final SearchMetrics metrics = new SearchMetrics();
+    private final List<Path> layers = new ArrayList<>(); // Layer files of the running iteration, by depth
+    private final List<Path> runs = new ArrayList<>(); // Sorted runs of the layer being generated
+    private PatternHeuristic patternHeuristic; // Null without the pattern databases
+    private Path workDirectory;
+    private long[] sortBuffer;
+    private int sortBufferSize;
+    private int nextBound;
+    private long layerSize;
+    private long storedSize; // Entries in all the layer files of the running iteration
+    private long peakLayerSize;
+    private long peakStoredSize;
+
+    public ExternalMemoryBot() {
+        this(new File(Config.SEARCH.EXTERNAL_SEARCH_DIRECTORY), Config.SEARCH.EXTERNAL_SORT_BUFFER_ENTRIES);
+    }
+
+    /**
+     * @param directory         the directory the layer files are created in, under a new directory per search
+     * @param sortBufferEntries the number of game states sorted in memory before they are written as a run
+     */
+    public ExternalMemoryBot(File directory, int sortBufferEntries) {
+        this(directory, sortBufferEntries, Config.SEARCH.USE_PATTERN_DATABASE);
+    }
+
+    /**
+     * @param directory          the directory the layer files are created in, under a new directory per search
+     * @param sortBufferEntries  the number of game states sorted in memory before they are written as a run
+     * @param usePatternDatabase estimate with the pattern databases instead of the column estimate of Heuristic
+     */
+    public ExternalMemoryBot(File directory, int sortBufferEntries, boolean usePatternDatabase) {
+        this.directory = directory;
+        this.sortBufferEntries = sortBufferEntries;
+        this.usePatternDatabase = usePatternDatabase;
+    }
+
+    /**
+     * @param rootGameState the initial game state
+     * @return the goal state reached, null if there is none
+     *
+     * @throws UncheckedIOException if the layer files cannot be written or read
+     */
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics.start();
+        try {
+            Files.createDirectories(directory.toPath());
+            workDirectory = Files.createTempDirectory(directory.toPath(), "search");
+            try {
+                return search(rootGameState);
+            } finally {
+                deleteRuns();
+                deleteLayers();
+                Files.deleteIfExists(workDirectory);
+                sortBuffer = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            metrics.setPeakSizes(peakLayerSize, peakStoredSize);
+            metrics.stop();
+        }
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return true when the search used the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return patternHeuristic != null;
+    }
+
+    private GameState search(GameState rootGameState) throws IOException {
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState, usePatternDatabase);
+        long rootBoard = rootGameState.getBoard();
+        int bound = estimate(rootBoard);
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+        if (Board.isGoal(rootBoard)) {
+            return rootGameState.clone();
+        }
+
+        sortBuffer = new long[sortBufferEntries];
+        sortBufferSize = 0;
+        peakLayerSize = 0;
+        peakStoredSize = 0;
+        while (true) {
+            nextBound = Integer.MAX_VALUE;
+            long goalEntry = searchWithin(rootBoard, bound);
+            if (goalEntry != NO_GOAL) {
+                return replay(rootGameState, goalEntry);
+            }
+            if (nextBound == Integer.MAX_VALUE) {
+                return null;
+            }
+            bound = nextBound;
+        }
+    }
+
+    /**
+     * One breadth first search, pruned by a cost bound
+     *
+     * @param rootBoard the initial board
+     * @param bound     the highest g(n) + h(n) searched
+     * @return the entry of the first goal found, NO_GOAL if every layer under the bound is searched without one
+     */
+    private long searchWithin(long rootBoard, int bound) throws IOException {
+        deleteLayers();
+        storedSize = 0;
+        add(entryOf(rootBoard, NO_PARENT));
+        for (int depth = 0; ; depth++) {
+            long goalEntry = mergeRuns(depth);
+            if (goalEntry != NO_GOAL) {
+                return goalEntry;
+            }
+            if (layerSize == 0) {
+                return NO_GOAL;
+            }
+            expandLayer(depth, bound);
+        }
+    }
+
+    /**
+     * Generate the children of every game state of a layer into sorted runs
+     *
+     * @param depth the number of moves of the layer
+     * @param bound the highest g(n) + h(n) kept
+     */
+    private void expandLayer(int depth, int bound) throws IOException {
+        try (EntryReader reader = new EntryReader(layers.get(depth))) {
+            while (reader.hasNext()) {
+                long entry = reader.next();
+                long board = entry >>> PARENT_BITS;
+                int parentEmptyCellIndex = (int) (entry & PARENT_MASK);
+                int emptyCellIndex = Board.findEmpty(board);
+                metrics.addExpanded();
+                for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+                    if (movedCellIndex == parentEmptyCellIndex) {
+                        continue; // Back to the parent, which is in the previous layer
+                    }
+                    long childBoard = Board.move(board, movedCellIndex, emptyCellIndex);
+                    metrics.addGenerated();
+                    int estimatedTotalCost = depth + 1 + sampledEstimate(childBoard);
+                    if (estimatedTotalCost > bound) {
+                        nextBound = Math.min(nextBound, estimatedTotalCost);
+                        continue;
+                    }
+                    add(entryOf(childBoard, emptyCellIndex));
+                }
+            }
+        }
+    }
+
+    private void add(long entry) throws IOException {
+        if (sortBufferSize == sortBuffer.length) {
+            flushRun();
+        }
+        sortBuffer[sortBufferSize++] = entry;
+    }
+
+    /**
+     * Sort the buffered entries and write them as a new run, keeping one entry per board
+     */
+    private void flushRun() throws IOException {
+        Arrays.sort(sortBuffer, 0, sortBufferSize);
+        Path run = workDirectory.resolve("run-" + runs.size());
+        runs.add(run);
+        try (EntryWriter writer = new EntryWriter(run)) {
+            long previousBoard = -1L;
+            for (int i = 0; i < sortBufferSize; i++) {
+                long board = sortBuffer[i] >>> PARENT_BITS;
+                if (board == previousBoard) {
+                    metrics.addDuplicates(1);
+                    continue;
+                }
+                previousBoard = board;
+                writer.write(sortBuffer[i]);
+            }
+        }
+        sortBufferSize = 0;
+    }
+
+    /**
+     * Merge the runs into the next layer file, without the boards already in the two previous layers
+     *
+     * @param depth the number of moves of the new layer
+     * @return the entry of a goal of the new layer, NO_GOAL if it has none
+     */
+    private long mergeRuns(int depth) throws IOException {
+        if (sortBufferSize > 0) {
+            flushRun();
+        }
+        Path layer = workDirectory.resolve("layer-" + depth);
+        PriorityQueue<EntryReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                (first, second) -> Long.compare(first.peek(), second.peek()));
+        EntryReader previousLayer = depth >= 1 ? new EntryReader(layers.get(depth - 1)) : null;
+        EntryReader olderLayer = depth >= 2 ? new EntryReader(layers.get(depth - 2)) : null;
+        long goalEntry = NO_GOAL;
+        layerSize = 0;
+        try (EntryWriter writer = new EntryWriter(layer)) {
+            for (Path run : runs) {
+                EntryReader reader = new EntryReader(run);
+                if (reader.hasNext()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            long previousBoard = -1L;
+            while (!queue.isEmpty()) {
+                EntryReader reader = queue.poll();
+                long entry = reader.next();
+                if (reader.hasNext()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+
+                long board = entry >>> PARENT_BITS;
+                if (board == previousBoard
+                        || (previousLayer != null && previousLayer.skipTo(board))
+                        || (olderLayer != null && olderLayer.skipTo(board))) {
+                    metrics.addDuplicates(1);
+                    continue;
+                }
+                previousBoard = board;
+                writer.write(entry);
+                layerSize++;
+                if (goalEntry == NO_GOAL && Board.isGoal(board)) {
+                    goalEntry = entry;
+                }
+            }
+        } finally {
+            for (EntryReader reader : queue) {
+                reader.close();
+            }
+            if (previousLayer != null) {
+                previousLayer.close();
+            }
+            if (olderLayer != null) {
+                olderLayer.close();
+            }
+            deleteRuns();
+        }
+
+        layers.add(layer);
+        storedSize += layerSize;
+        peakLayerSize = Math.max(peakLayerSize, layerSize);
+        peakStoredSize = Math.max(peakStoredSize, storedSize);
+        return goalEntry;
+    }
+
+    /**
+     * Walk back from a goal to the initial board through the layer files, then replay the moves
+     *
+     * @param rootGameState the initial game state
+     * @param goalEntry     the entry of the goal, in the last layer
+     * @return the goal state, with the steps taken to reach it
+     */
+    private GameState replay(GameState rootGameState, long goalEntry) throws IOException {
+        int[] moves = new int[layers.size() - 1];
+        long entry = goalEntry;
+        for (int depth = moves.length; depth > 0; depth--) {
+            long board = entry >>> PARENT_BITS;
+            int emptyCellIndex = Board.findEmpty(board);
+            moves[depth - 1] = emptyCellIndex;
+            long parentBoard = Board.move(board, (int) (entry & PARENT_MASK), emptyCellIndex);
+            entry = find(layers.get(depth - 1), parentBoard);
+        }
+
+        GameState gameState = rootGameState.clone();
+        for (int move : moves) {
+            gameState.moveCandyAt(move);
+        }
+        return gameState;
+    }
+
+    /**
+     * Binary search of a board in a layer file
+     *
+     * @param layer the layer file
+     * @param board the packed board
+     * @return the entry of the board
+     */
+    private static long find(Path layer, long board) throws IOException {
+        try (FileChannel channel = FileChannel.open(layer, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long low = 0;
+            long high = channel.size() / Long.BYTES - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, middle * Long.BYTES + buffer.position()) < 0) {
+                        throw new IOException("Truncated layer file " + layer);
+                    }
+                }
+                long entry = buffer.getLong(0);
+                long middleBoard = entry >>> PARENT_BITS;
+                if (middleBoard < board) {
+                    low = middle + 1;
+                } else if (middleBoard > board) {
+                    high = middle - 1;
+                } else {
+                    return entry;
+                }
+            }
+        }
+        throw new IOException("Board " + Board.toString(board) + " missing from " + layer);
+    }
+
+    private int estimate(long board) {
+        return patternHeuristic != null ? patternHeuristic.estimate(board) : Heuristic.estimate(board);
+    }
+
+    /**
+     * Estimate a child board, timing one call in SearchMetrics.HEURISTIC_SAMPLE_INTERVAL
+     *
+     * @param board the packed board
+     * @return the heuristic value
+     */
+    private int sampledEstimate(long board) {
+        if (!metrics.sampleHeuristic()) {
+            return estimate(board);
+        }
+        long heuristicStartTime = System.nanoTime();
+        int heuristicValue = estimate(board);
+        metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+        return heuristicValue;
+    }
+
+    private static long entryOf(long board, int parentEmptyCellIndex) {
+        return (board << PARENT_BITS) | parentEmptyCellIndex;
+    }
+
+    private void deleteRuns() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private void deleteLayers() throws IOException {
+        for (Path layer : layers) {
+            Files.deleteIfExists(layer);
+        }
+        layers.clear();
+    }
+
+    /**
+     * Sequential reader of a file of entries, through a direct buffer
+     */
+    private static final class EntryReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(Config.SEARCH.EXTERNAL_IO_BUFFER_BYTES);
+        private boolean hasHead;
+        private long head;
+
+        EntryReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer.flip();
+            advance();
+        }
+
+        boolean hasNext() {
+            return hasHead;
+        }
+
+        long peek() {
+            return head;
+        }
+
+        long next() throws IOException {
+            long entry = head;
+            advance();
+            return entry;
+        }
+
+        /**
+         * Skip the entries of the boards lower than a board, boards must be asked in increasing order
+         *
+         * @param board the packed board
+         * @return true if the file holds the board
+         */
+        boolean skipTo(long board) throws IOException {
+            while (hasHead && (head >>> PARENT_BITS) < board) {
+                advance();
+            }
+            return hasHead && (head >>> PARENT_BITS) == board;
+        }
+
+        private void advance() throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                buffer.compact();
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // Fill the buffer
+                }
+                buffer.flip();
+            }
+            hasHead = buffer.remaining() >= Long.BYTES;
+            if (hasHead) {
+                head = buffer.getLong();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Sequential writer of a file of entries, through a direct buffer
+     */
+    private static final class EntryWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(Config.SEARCH.EXTERNAL_IO_BUFFER_BYTES);
+
+        EntryWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+
+        void write(long entry) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(entry);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.function.Consumer;
+
+/**
+ * The open list of an A* search: keeps the best game state for each board, ordered by f(n) = g(n) + h(n)
+ */
+public interface Frontier {
+    /**
+     * Add a new game state, or replace the game state with the same board if the new one is cheaper
+     *
+     * @param gameState the game state
+     * @return true if the game state is added, false otherwise
+     */
+    boolean addNewItem(GameState gameState);
+    
+    /**
+     * Remove and return the game state with the lowest f(n)
+     *
+     * @return the first game state, null if the frontier is empty
+     */
+    GameState pollFirstItem();
+    
+    /**
+     * Check if the frontier is empty
+     *
+     * @return true if the frontier is empty, false otherwise
+     */
+    boolean isEmpty();
+    
+    /**
+     * Get the number of game states in the frontier
+     *
+     * @return the size of the frontier
+     */
+    int getSize();
+    
+    /**
+     * Get the largest number of game states the frontier held at once
+     *
+     * @return the peak size of the frontier
+     */
+    int getPeakSize();
+    
+    /**
+     * Get how many added game states had a board already in the frontier, whether they replaced it or not
+     *
+     * @return the number of duplicate hits
+     */
+    long getDuplicateCount();
+    
+    /**
+     * Pass every game state of the frontier to an action, in no particular order
+     *
+     * @param action the action, which must not change the frontier
+     */
+    void forEachItem(Consumer<GameState> action);
+}
@@ -8,10 +8,10 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
 //    static final long serialVersionUID = -8084210473720589252L;
     private int actualCostToReach;
     private int heuristicValue;
-    private TreeMap<Character, Character> theBoard;
-    private ArrayList<Character> stepsTaken;
-    private char emptyCellChar;
-    private HashMap<Character, Integer> candiesCount;
+    private long theBoard; // Packed board, see Board
+    private transient Step lastStep; // Last move of the path from the initial state, null for the initial state
+    private int emptyCellIndex;
+    private int[] candiesCount; // Indexed by candy code, shared between clones since moves never change it
 
 //    public GameState(GameState gameState){
 ////        this.parentState = gameState.parentState;
@@ -35,9 +35,7 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
         {
             System.out.println(e.toString());
         }
-        o.candiesCount = (HashMap<Character, Integer>)this.candiesCount.clone();
-        o.theBoard = (TreeMap<Character, Character> )this.theBoard.clone();
-        o.stepsTaken = ( ArrayList<Character>)this.stepsTaken.clone();
+        // The path is immutable, so the copy shares it instead of copying it
         return o;
     }
 
@@ -45,62 +43,48 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      * Initialize a new game from an input string representing the initial state
      *
      * @param inputString the input string
+     *
+     * @throws InvalidBoardException if the input string is not a valid board, see BoardParser
      */
     public GameState(String inputString) {
+        this(BoardParser.parse(inputString));
+    }
+    
+    /**
+     * Initialize a new game from a packed board
+     *
+     * @param board the packed board, see Board
+     */
+    public GameState(long board) {
 //        parentState = null;
 //        childStates = new ArrayList<>();
-        theBoard = new TreeMap<>();
-        stepsTaken = new ArrayList<>();
-        emptyCellChar = Character.MIN_VALUE;
-        candiesCount = new HashMap<>();
+        theBoard = board;
+        lastStep = null;
+        emptyCellIndex = Board.findEmpty(board);
+        candiesCount = new int[Board.CODE_COUNT];
         actualCostToReach = 0;
         heuristicValue = Integer.MAX_VALUE;
-        
-        // Initialize the initial state
-        ArrayList<Character> input = readInitialState(inputString);
-        for (int i = 0; i < input.size(); i++) {
-            char candyChar = input.get(i);
-            char cellChar = Config.GAME_RULES.getCellCharByIndex(i);
-            if (input.get(i) == Config.GAME_RULES.CANDY.e.getChar()) {
-                emptyCellChar = cellChar;
-            }
-            theBoard.put(cellChar, candyChar);
-            candiesCount.put(candyChar, candiesCount.getOrDefault(candyChar, 0) + 1);
-        }
-        
-        // Display empty cell instead of character 'e'
-        for (Map.Entry entry : theBoard.entrySet()) {
-            if ((char) entry.getValue() == Config.GAME_RULES.CANDY.e.getChar()) {
-                entry.setValue(' ');
-                break;
-            }
+        for (int i = 0; i < Board.CELL_COUNT; i++) {
+            candiesCount[Board.get(board, i)]++;
         }
     }
     
     /**
-     * Read the input string and return the array if candy characters
-     * Validate all the candy character based on the game rules
-     *
-     * @param inputString the input string
+     * Rebuild a game state from its encoded fields, see GameStateCodec
      *
-     * @return the array of candy characters from the input string
+     * @param board            the packed board
+     * @param movedCellIndexes the cells moved on the path from the initial state, oldest first
+     * @param heuristicValue   h(n)
+     * @return the game state
      */
-    private ArrayList<Character> readInitialState(String inputString) {
-        // Validate the input & Break it into an array of characters
-        ArrayList<Character> initialState = new ArrayList<>();
-        while (!inputString.isEmpty()) {
-            inputString = inputString.trim();
-            char candyChar = inputString.charAt(0);
-            inputString = inputString.substring(1);
-            if (Config.GAME_RULES.isValidCandyChar(candyChar)) {
-                initialState.add(candyChar);
-            } else {
-                throw new IllegalArgumentException(Config.GAME_RULES.INVALID_CANDY);
-            }
+    static GameState restore(long board, int[] movedCellIndexes, int heuristicValue) {
+        GameState gameState = new GameState(board);
+        for (int movedCellIndex : movedCellIndexes) {
+            gameState.lastStep = new Step(gameState.lastStep, movedCellIndex);
         }
-        
-        // Return the valid array
-        return initialState;
+        gameState.actualCostToReach = movedCellIndexes.length;
+        gameState.heuristicValue = heuristicValue;
+        return gameState;
     }
     
     /**
@@ -118,16 +102,14 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
                         "| %c | %c | %c | %c | %c |" + System.lineSeparator() +
                         "| %c | %c | %c | %c | %c |" + System.lineSeparator() +
                         "=====================" + System.lineSeparator();
-        ArrayList<Character> cellChars = new ArrayList<>(theBoard.keySet());
-        ArrayList<Character> candyChars = new ArrayList<>(theBoard.values());
-        System.out.printf(printFormat,
-                cellChars.get(0), cellChars.get(1), cellChars.get(2), cellChars.get(3), cellChars.get(4),
-                candyChars.get(0), candyChars.get(1), candyChars.get(2), candyChars.get(3), candyChars.get(4),
-                cellChars.get(5), cellChars.get(6), cellChars.get(7), cellChars.get(8), cellChars.get(9),
-                candyChars.get(5), candyChars.get(6), candyChars.get(7), candyChars.get(8), candyChars.get(9),
-                cellChars.get(10), cellChars.get(11), cellChars.get(12), cellChars.get(13), cellChars.get(14),
-                candyChars.get(10), candyChars.get(11), candyChars.get(12), candyChars.get(13), candyChars.get(14)
-        );
+        Object[] arguments = new Object[Board.CELL_COUNT * 2];
+        for (int i = 0; i < Board.CELL_COUNT; i++) {
+            int row = i / Board.ROW_LENGTH;
+            int column = i % Board.ROW_LENGTH;
+            arguments[row * Board.ROW_LENGTH * 2 + column] = Config.GAME_RULES.getCellCharByIndex(i);
+            arguments[row * Board.ROW_LENGTH * 2 + Board.ROW_LENGTH + column] = getCandyAt(i);
+        }
+        System.out.printf(printFormat, arguments);
     }
     
     /**
@@ -136,11 +118,44 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      * @return the current empty cell character
      */
     public char getEmptyCellChar() {
-        return emptyCellChar;
+        return emptyCellIndex < 0 ? Character.MIN_VALUE : Config.GAME_RULES.getCellCharByIndex(emptyCellIndex);
+    }
+    
+    /**
+     * Get the index of the cell that does not hold any candy
+     *
+     * @return the current empty cell index, -1 if the board has no empty cell
+     */
+    public int getEmptyCellIndex() {
+        return emptyCellIndex;
     }
 
+    /**
+     * Rebuild the cells moved on the path from the initial state, oldest first
+     *
+     * @return a new list of the steps taken
+     */
     public ArrayList<Character> getStepsTaken() {
-        return stepsTaken;
+        Character[] steps = new Character[actualCostToReach];
+        int i = steps.length;
+        for (Step step = lastStep; step != null; step = step.previousStep) {
+            steps[--i] = Config.GAME_RULES.getCellCharByIndex(step.movedCellIndex);
+        }
+        return new ArrayList<>(Arrays.asList(steps));
+    }
+    
+    /**
+     * Same as getStepsTaken, as cell indexes
+     *
+     * @return a new array of the cells moved on the path from the initial state, oldest first
+     */
+    public int[] getMovedCellIndexes() {
+        int[] movedCellIndexes = new int[actualCostToReach];
+        int i = movedCellIndexes.length;
+        for (Step step = lastStep; step != null; step = step.previousStep) {
+            movedCellIndexes[--i] = step.movedCellIndex;
+        }
+        return movedCellIndexes;
     }
     
     /**
@@ -154,33 +169,39 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
         if (cellChar == Character.MIN_VALUE || cellChar == Character.MAX_VALUE)
             return true;
         
-        if (Config.GAME_RULES.isValidMove(cellChar, emptyCellChar)) {
-            theBoard.put(emptyCellChar, theBoard.get(cellChar));
-            theBoard.put(cellChar, ' ');
-            emptyCellChar = cellChar;
-            stepsTaken.add(cellChar);
-            actualCostToReach++;
+        if (Config.GAME_RULES.isValidMove(cellChar, getEmptyCellChar())) {
 //            printStepsTaken();
-            return true;
+            return moveCandyAt(Config.GAME_RULES.getCellIndexByChar(cellChar));
         } else {
             return  false;
         }
     }
     
+    /**
+     * Move the candy at the input cell to the empty cell if possible
+     * Only move the candy if the move is valid
+     *
+     * @param cellIndex the index of the cell that the moved candy is in
+     * @return true if the candy is moved, false otherwise
+     */
+    public boolean moveCandyAt(int cellIndex) {
+        if (!Config.GAME_RULES.isAdjacent(cellIndex, emptyCellIndex)) {
+            return false;
+        }
+        theBoard = Board.move(theBoard, cellIndex, emptyCellIndex);
+        emptyCellIndex = cellIndex;
+        lastStep = new Step(lastStep, cellIndex);
+        actualCostToReach++;
+        return true;
+    }
+    
     /**
      * Check if the current state is the goal state
      *
      * @return true if the top and bottom row are identical, false otherwise
      */
     public boolean isGoalState() {
-        for (int i = 0; i < 5; i++) {
-            char topCellChar = (char) (i + 65);
-            char bottomCellChar = (char) (i + 65 + Config.GAME_RULES.GOAL_STATE_MATCHING_CELL_DISTANCE);
-            if (theBoard.get(topCellChar) != theBoard.get(bottomCellChar)) {
-                return false;
-            }
-        }
-        return true;
+        return Board.isGoal(theBoard);
     }
     
     /**
@@ -188,7 +209,7 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      */
     public void printStepsTaken() {
 //        System.out.println(stepsTaken);
-            for(Character c: stepsTaken){
+            for(Character c: getStepsTaken()){
                 System.out.print(c);
             }
     }
@@ -200,7 +221,17 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      * @return the number of candies of that kind
      */
     public int getCandyCount(char candyChar) {
-        return candiesCount.getOrDefault(candyChar, 0);
+        int candyCode = Board.toCode(candyChar);
+        return candyCode < 0 ? 0 : candiesCount[candyCode];
+    }
+    
+    /**
+     * Get the total number of candies of every kind
+     *
+     * @return a new array holding the count of each candy code, see Board
+     */
+    public int[] getCandiesCount() {
+        return candiesCount.clone();
     }
     
     /**
@@ -210,7 +241,17 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      * @return the candy character in the cell
      */
     public char getCandyAt(char cellChar) {
-        return theBoard.get(cellChar);
+        return getCandyAt(Config.GAME_RULES.getCellIndexByChar(cellChar));
+    }
+    
+    /**
+     * Get the candy at a cell
+     *
+     * @param cellIndex the cell index
+     * @return the candy character in the cell
+     */
+    public char getCandyAt(int cellIndex) {
+        return Board.toChar(Board.get(theBoard, cellIndex));
     }
     
     /**
@@ -272,7 +313,16 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
         return actualCostToReach;
     }
     
-    public double getHeuristicValue() {
+    /**
+     * Get f(n) = g(n) + h(n), the value the open list is ordered by
+     *
+     * @return the estimated total cost
+     */
+    public int getEstimatedTotalCost() {
+        return actualCostToReach + heuristicValue;
+    }
+    
+    public int getHeuristicValue() {
         return heuristicValue;
     }
     
@@ -282,11 +332,7 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
     
     @Override
     public String toString() {
-        StringBuilder stringBuilder = new StringBuilder();
-        for (char candyChar : theBoard.values()) {
-            stringBuilder.append(candyChar).append(" ");
-        }
-        return stringBuilder.substring(0, stringBuilder.length() - 1);
+        return Board.toString(theBoard);
     }
     
 //    public GameState getParentState() {
@@ -301,10 +347,23 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
 //        return childStates;
 //    }
     
-    public TreeMap<Character, Character> getTheBoard() {
+    /**
+     * Get the packed board, two game states with the same board have the same value
+     *
+     * @return the packed board
+     */
+    public long getBoard() {
         return theBoard;
     }
     
+    public TreeMap<Character, Character> getTheBoard() {
+        TreeMap<Character, Character> board = new TreeMap<>();
+        for (int i = 0; i < Board.CELL_COUNT; i++) {
+            board.put(Config.GAME_RULES.getCellCharByIndex(i), getCandyAt(i));
+        }
+        return board;
+    }
+    
 //    public void addNewChild(GameState newChildState) {
 //        childStates.add(newChildState);
 //    }
@@ -314,11 +373,10 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
 //    }
     
     public ArrayList<Character> getRow(int rowIndex) {
-        int i = rowIndex * 5;
-        ArrayList<Character> row = new ArrayList<>();
-        for (int j = 65 + i; j < 65 + i + 5; j++) {
-            char cellChar = (char) (j);
-            row.add(theBoard.get(cellChar));
+        int i = rowIndex * Board.ROW_LENGTH;
+        ArrayList<Character> row = new ArrayList<>(Board.ROW_LENGTH);
+        for (int j = i; j < i + Board.ROW_LENGTH; j++) {
+            row.add(getCandyAt(j));
         }
         return row;
     }
@@ -369,44 +427,74 @@ public class GameState implements Comparable<GameState>, Serializable, Cloneable
      */
     @Override
     public int compareTo(GameState otherGameState) {
-        int thisCost = this.heuristicValue + this.actualCostToReach;
-        int otherCost = otherGameState.heuristicValue + otherGameState.actualCostToReach;
+        int thisCost = this.getEstimatedTotalCost();
+        int otherCost = otherGameState.getEstimatedTotalCost();
         if (thisCost != otherCost)
             return (thisCost - otherCost);
         
-        return this.toString().compareTo(otherGameState.toString());
+        // Same order as comparing the toString() forms, without building them
+        return Long.compare(this.theBoard, otherGameState.theBoard);
     }
     
     @Override
     public boolean equals(Object object) {
-        if (object == null)
-            return false;
         if (object instanceof GameState) {
             GameState otherGameState = (GameState) object;
-            return (object.toString().compareTo(otherGameState.toString()) == 0);
+            return this.theBoard == otherGameState.theBoard;
         }
         
         return false;
     }
     
+    @Override
+    public int hashCode() {
+        return Long.hashCode(theBoard);
+    }
+    
+    /**
+     * Copy a game state through its binary form, see GameStateCodec
+     *
+     * @param object the game state
+     * @return an independent copy, sharing nothing with the game state
+     */
     public static GameState deepClone(GameState object) {
-        try {
-//            long start = System.currentTimeMillis();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(object);
-            ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            GameState gameState = (GameState) ois.readObject();
-//            gameState.setParentState(null);
-//            gameState.clearAllChild();
-//            long end = System.currentTimeMillis();
-//            System.out.println("deepcolne: " + (end-start));
-            return gameState;
+        return GameStateCodec.decode(GameStateCodec.encode(object));
+    }
+    
+    /**
+     * Java serialization writes the GameStateCodec bytes instead of the fields and the path objects
+     *
+     * @return the serialized form
+     */
+    private Object writeReplace() {
+        return new SerializedForm(GameStateCodec.encode(this));
+    }
+    
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final byte[] bytes;
+        
+        SerializedForm(byte[] bytes) {
+            this.bytes = bytes;
+        }
+        
+        private Object readResolve() {
+            return GameStateCodec.decode(bytes);
         }
-        catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    }
+    
+    /**
+     * One move of a path, linked to the move before it
+     * Game states reached from the same parent share the parent's path, so a new node costs one Step
+     * instead of a copy of the whole list of steps
+     */
+    private static final class Step {
+        private final Step previousStep;
+        private final byte movedCellIndex;
+        
+        Step(Step previousStep, int movedCellIndex) {
+            this.previousStep = previousStep;
+            this.movedCellIndex = (byte) movedCellIndex;
         }
     }
 }
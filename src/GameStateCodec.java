@@ -0,0 +1,78 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of a game state, in place of Java serialization
+ *
+ * One long holding the packed board in its low 45 bits and g(n) above them, then h(n) as an int, then the cell
+ * index of every move of the path, two moves per byte, oldest first in the high half. The empty cell and the
+ * candy counts are rebuilt from the board
+ */
+public final class GameStateCodec {
+    private static final int COST_SHIFT = Board.CELL_COUNT * Board.BITS_PER_CELL;
+    private static final int MAX_COST = (1 << (Long.SIZE - 1 - COST_SHIFT)) - 1;
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * @param gameState the game state
+     * @return the number of bytes write takes for it
+     */
+    public static int encodedLength(GameState gameState) {
+        return Long.BYTES + Integer.BYTES + (gameState.getActualCostToReach() + 1) / 2;
+    }
+
+    /**
+     * @param buffer    the buffer, with at least encodedLength bytes remaining
+     * @param gameState the game state
+     */
+    public static void write(ByteBuffer buffer, GameState gameState) {
+        int cost = gameState.getActualCostToReach();
+        if (cost > MAX_COST) {
+            throw new IllegalArgumentException("Path too long to encode: " + cost);
+        }
+        buffer.putLong(gameState.getBoard() | ((long) cost << COST_SHIFT));
+        buffer.putInt(gameState.getHeuristicValue());
+        int[] movedCellIndexes = gameState.getMovedCellIndexes();
+        for (int i = 0; i < movedCellIndexes.length; i += 2) {
+            int low = i + 1 < movedCellIndexes.length ? movedCellIndexes[i + 1] : 0;
+            buffer.put((byte) ((movedCellIndexes[i] << 4) | low));
+        }
+    }
+
+    /**
+     * @param buffer the buffer, positioned on a game state written by write
+     * @return the game state, with its path and heuristic value
+     */
+    public static GameState read(ByteBuffer buffer) {
+        long word = buffer.getLong();
+        int heuristicValue = buffer.getInt();
+        int[] movedCellIndexes = new int[(int) (word >>> COST_SHIFT)];
+        for (int i = 0; i < movedCellIndexes.length; i += 2) {
+            int packed = buffer.get() & 0xFF;
+            movedCellIndexes[i] = packed >>> 4;
+            if (i + 1 < movedCellIndexes.length) {
+                movedCellIndexes[i + 1] = packed & 0xF;
+            }
+        }
+        return GameState.restore(word & Board.BOARD_MASK, movedCellIndexes, heuristicValue);
+    }
+
+    /**
+     * @param gameState the game state
+     * @return its encoded bytes
+     */
+    public static byte[] encode(GameState gameState) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(gameState));
+        write(buffer, gameState);
+        return buffer.array();
+    }
+
+    /**
+     * @param bytes the bytes of one game state, from encode
+     * @return the game state
+     */
+    public static GameState decode(byte[] bytes) {
+        return read(ByteBuffer.wrap(bytes));
+    }
+}
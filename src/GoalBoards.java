@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+/**
+ * Every goal board holding a given multiset of candies
+ * A goal has the top row equal to the bottom row, so the single empty cell is in the middle row,
+ * the top row takes one candy of as many pairs as it needs and the middle row takes everything left
+ */
+public final class GoalBoards {
+    private static final int TOP_ROW = 0;
+    private static final int MIDDLE_ROW = Board.ROW_LENGTH;
+    private static final int BOTTOM_ROW = Board.ROW_LENGTH * 2;
+
+    private final int[] remaining; // Candies of each code not placed yet
+    private long[] goals = new long[64];
+    private int goalCount;
+
+    private GoalBoards(int[] candiesCount) {
+        remaining = candiesCount.clone();
+    }
+
+    /**
+     * @param candiesCount the number of cells holding each candy code
+     * @return the packed goal boards, in increasing order, none if the candies cannot make a goal
+     */
+    public static long[] enumerate(int[] candiesCount) {
+        if (candiesCount.length != Board.CODE_COUNT) {
+            throw new IllegalArgumentException("Expected one entry per candy code");
+        }
+        GoalBoards goalBoards = new GoalBoards(candiesCount);
+        goalBoards.fillTopRow(0, 0L);
+        long[] goals = Arrays.copyOf(goalBoards.goals, goalBoards.goalCount);
+        Arrays.sort(goals);
+        return goals;
+    }
+
+    private void fillTopRow(int column, long board) {
+        if (column == Board.ROW_LENGTH) {
+            fillMiddleRow(0, board);
+            return;
+        }
+        for (int code = Board.EMPTY + 1; code < Board.CODE_COUNT; code++) {
+            if (remaining[code] >= 2) {
+                remaining[code] -= 2;
+                long pairBoard = Board.set(Board.set(board, TOP_ROW + column, code), BOTTOM_ROW + column, code);
+                fillTopRow(column + 1, pairBoard);
+                remaining[code] += 2;
+            }
+        }
+    }
+
+    private void fillMiddleRow(int column, long board) {
+        if (column == Board.ROW_LENGTH) {
+            if (goalCount == goals.length) {
+                goals = Arrays.copyOf(goals, goalCount << 1);
+            }
+            goals[goalCount++] = board;
+            return;
+        }
+        for (int code = 0; code < Board.CODE_COUNT; code++) {
+            if (remaining[code] > 0) {
+                remaining[code]--;
+                fillMiddleRow(column + 1, Board.set(board, MIDDLE_ROW + column, code));
+                remaining[code]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Heuristic estimates computed straight from a packed board, see Board
+ */
+public final class Heuristic {
+    private static final int TOP_ROW = 0;
+    private static final int MIDDLE_ROW = Board.ROW_LENGTH;
+    private static final int BOTTOM_ROW = Board.ROW_LENGTH * 2;
+    // Bitmask of the columns whose cost depends on a cell of each column
+    private static final int[] AFFECTED_COLUMNS = {0b00011, 0b00111, 0b01110, 0b11100, 0b11000};
+    
+    private Heuristic() {
+    }
+    
+    /**
+     * Player could move any tile to any where
+     * Heuristic value is the minimum # of tiles need to move to reach goal state
+     *
+     * Compare the top and bottom row column by column: a column whose two candies differ costs 2,
+     * or 1 if one of them is the empty cell and a neighbour of the empty cell holds the missing candy
+     *
+     * @param board the packed board
+     * @return the heuristic value
+     */
+    public static int estimate(long board) {
+        int heuristicValue = 0;
+        for (int i = 0; i < Board.ROW_LENGTH; i++) {
+            heuristicValue += columnCost(board, i);
+        }
+        return heuristicValue;
+    }
+    
+    /**
+     * Update the estimate of a board after one move, only re-evaluating the columns the move can affect
+     * The cost of a column reads its own cells and the top and bottom cells of the next columns,
+     * so changing a cell only affects its own column and the two next to it
+     *
+     * @param parentValue    the estimate of the board before the move
+     * @param parentBoard    the packed board before the move
+     * @param childBoard     the packed board after the move
+     * @param movedCellIndex the cell the moved candy came from
+     * @param emptyCellIndex the cell the moved candy went to
+     * @return the estimate of the board after the move, equal to estimate(childBoard)
+     */
+    public static int update(int parentValue, long parentBoard, long childBoard, int movedCellIndex, int emptyCellIndex) {
+        int affectedColumns = (AFFECTED_COLUMNS[movedCellIndex % Board.ROW_LENGTH]
+                | AFFECTED_COLUMNS[emptyCellIndex % Board.ROW_LENGTH]);
+        int heuristicValue = parentValue;
+        while (affectedColumns != 0) {
+            int i = Integer.numberOfTrailingZeros(affectedColumns);
+            affectedColumns &= affectedColumns - 1;
+            heuristicValue += columnCost(childBoard, i) - columnCost(parentBoard, i);
+        }
+        return heuristicValue;
+    }
+    
+    /**
+     * @param board the packed board
+     * @param i     the column
+     * @return the contribution of one column to the estimate
+     */
+    static int columnCost(long board, int i) {
+        int topCandy = Board.get(board, TOP_ROW + i);
+        int bottomCandy = Board.get(board, BOTTOM_ROW + i);
+        if (topCandy == bottomCandy) {
+            return 0;
+        } else if (topCandy == Board.EMPTY) {
+            return emptyColumnCost(board, TOP_ROW, bottomCandy, i);
+        } else if (bottomCandy == Board.EMPTY) {
+            return emptyColumnCost(board, BOTTOM_ROW, topCandy, i);
+        } else {
+            return 2;
+        }
+    }
+    
+    /**
+     * @param board         the packed board
+     * @param emptyRowStart the index of the first cell of the row holding the empty cell
+     * @param missingCandy  the candy the empty cell needs to match the opposite row
+     * @param i             the column of the empty cell
+     * @return 1 if a neighbour of the empty cell holds the missing candy, 2 otherwise
+     */
+    private static int emptyColumnCost(long board, int emptyRowStart, int missingCandy, int i) {
+        if (i - 1 >= 0 && Board.get(board, emptyRowStart + i - 1) == missingCandy)
+            return 1;
+        else if (i + 1 <= 4 && Board.get(board, emptyRowStart + i + 1) == missingCandy)
+            return 1;
+        else if (Board.get(board, MIDDLE_ROW + i) == missingCandy)
+            return 1;
+        else
+            return 2;
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * Iterative deepening A* (IDA*): repeated depth first searches bounded by f(n) = g(n) + h(n),
+ * each raising the bound to the lowest f(n) that went over it
+ * Only one packed board is kept, moves are applied in place and undone on the way back,
+ * so memory grows with the solution depth instead of the number of states explored
+ */
+public class IdaStarBot implements SearchEngine {
+    private static final int FOUND = -1;
+    private static final int NO_PREVIOUS_CELL = -1;
+    
+    private long board;
+    private int emptyCellIndex;
+    private int[] movesTaken; // Cell index of the candy moved at each depth of the current path
+    private PatternHeuristic patternHeuristic; // Null when Config.SEARCH.USE_PATTERN_DATABASE is off
+    private final SearchMetrics metrics = new SearchMetrics();
+    private int peakDepth;
+    
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics.start();
+        try {
+            return deepen(rootGameState);
+        } finally {
+            // The only game states kept are those of the current path
+            metrics.setPeakSizes(peakDepth, 0);
+            metrics.stop();
+        }
+    }
+    
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Search again with a higher bound until a goal is reached
+     *
+     * @param rootGameState the initial game state
+     * @return the goal state, null if there is none
+     */
+    private GameState deepen(GameState rootGameState) {
+        board = rootGameState.getBoard();
+        emptyCellIndex = rootGameState.getEmptyCellIndex();
+        movesTaken = new int[64];
+        
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState);
+        int rootHeuristicValue = patternHeuristic != null ? patternHeuristic.estimate(board) : Heuristic.estimate(board);
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+        int bound = rootHeuristicValue;
+        while (true) {
+            int result = search(0, bound, NO_PREVIOUS_CELL, rootHeuristicValue);
+            if (result == FOUND) {
+                return replay(rootGameState);
+            }
+            if (result == Integer.MAX_VALUE) {
+                return null;
+            }
+            bound = result;
+        }
+    }
+    
+    /**
+     * Depth first search below the current board
+     *
+     * @param depth             g(n) of the current board
+     * @param bound             the highest f(n) explored in this iteration
+     * @param previousEmptyCell the empty cell before the last move, moving its candy back would undo that move
+     * @param heuristicValue    h(n) of the current board
+     * @return FOUND if a goal is reached, otherwise the lowest f(n) above the bound
+     */
+    private int search(int depth, int bound, int previousEmptyCell, int heuristicValue) {
+        int estimatedTotalCost = depth + heuristicValue;
+        if (estimatedTotalCost > bound) {
+            return estimatedTotalCost;
+        }
+        if (Board.isGoal(board)) {
+            movesTaken = Arrays.copyOf(movesTaken, depth);
+            return FOUND;
+        }
+        if (depth == movesTaken.length) {
+            movesTaken = Arrays.copyOf(movesTaken, depth << 1);
+        }
+        metrics.addExpanded();
+        peakDepth = Math.max(peakDepth, depth + 1);
+        
+        int minimumCost = Integer.MAX_VALUE;
+        for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+            if (movedCellIndex == previousEmptyCell) {
+                continue;
+            }
+            
+            int oldEmptyCellIndex = emptyCellIndex;
+            long oldBoard = board;
+            board = Board.move(board, movedCellIndex, oldEmptyCellIndex);
+            emptyCellIndex = movedCellIndex;
+            movesTaken[depth] = movedCellIndex;
+            metrics.addGenerated();
+            int childHeuristicValue;
+            if (metrics.sampleHeuristic()) {
+                long heuristicStartTime = System.nanoTime();
+                childHeuristicValue = estimate(heuristicValue, oldBoard, movedCellIndex, oldEmptyCellIndex);
+                metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+            } else {
+                childHeuristicValue = estimate(heuristicValue, oldBoard, movedCellIndex, oldEmptyCellIndex);
+            }
+            
+            int result = search(depth + 1, bound, oldEmptyCellIndex, childHeuristicValue);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            minimumCost = Math.min(minimumCost, result);
+            
+            // Undo the move
+            board = oldBoard;
+            emptyCellIndex = oldEmptyCellIndex;
+        }
+        return minimumCost;
+    }
+    
+    /**
+     * Estimate the current board after a move
+     *
+     * @param parentValue    the estimate of the board before the move
+     * @param parentBoard    the packed board before the move
+     * @param movedCellIndex the cell the moved candy came from
+     * @param emptyCellIndex the cell the moved candy went to
+     * @return the heuristic value of the current board
+     */
+    private int estimate(int parentValue, long parentBoard, int movedCellIndex, int emptyCellIndex) {
+        return patternHeuristic != null ? patternHeuristic.estimate(board)
+                : Heuristic.update(parentValue, parentBoard, board, movedCellIndex, emptyCellIndex);
+    }
+    
+    /**
+     * Apply the moves of the solution found to a copy of the initial state
+     *
+     * @param rootGameState the initial game state
+     * @return the goal state, with its steps taken
+     */
+    private GameState replay(GameState rootGameState) {
+        GameState goalState = rootGameState.clone();
+        for (int movedCellIndex : movesTaken) {
+            goalState.moveCandyAt(movedCellIndex);
+        }
+        Bot.computeHeuristicValue(goalState);
+        return goalState;
+    }
+    
+    /**
+     * @return true when the search used the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return patternHeuristic != null;
+    }
+}
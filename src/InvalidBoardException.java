@@ -0,0 +1,11 @@
+/**
+ * Thrown by BoardParser for a line that is not a board, so solvers can tell a bad input line from a failure
+ * of the search itself
+ */
+public class InvalidBoardException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidBoardException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open addressing hash set of packed boards
+ * Keys must be non-negative, which every packed board is, so membership checks never allocate
+ */
+public class LongHashSet {
+    private static final long FREE_KEY = -1L;
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final float LOAD_FACTOR = 0.5f;
+    
+    private long[] keys;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param expectedSize the number of keys the set should hold without growing
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(LongIntHashMap.tableSizeFor(expectedSize));
+    }
+    
+    /**
+     * Add a key to the set
+     *
+     * @param key the key, must be non-negative
+     * @return true if the key was not in the set before, false otherwise
+     */
+    public boolean add(long key) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+    
+    /**
+     * Check if a key is in the set
+     *
+     * @param key the key
+     * @return true if the key is in the set, false otherwise
+     */
+    public boolean contains(long key) {
+        return keys[slotOf(key)] == key;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Pass every key of the set to an action, in no particular order
+     *
+     * @param action the action, which must not change the set
+     */
+    public void forEach(LongConsumer action) {
+        for (long key : keys) {
+            if (key != FREE_KEY) {
+                action.accept(key);
+            }
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+    }
+    
+    private int slotOf(long key) {
+        int slot = LongIntHashMap.hash(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != FREE_KEY) {
+                keys[slotOf(key)] = key;
+            }
+        }
+    }
+}
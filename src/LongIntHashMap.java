@@ -0,0 +1,158 @@
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from packed boards to int values
+ * Keys must be non-negative, which every packed board is, so no key object is ever boxed
+ */
+public class LongIntHashMap {
+    private static final long FREE_KEY = -1L;
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map should hold without growing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Get the value mapped to a key
+     *
+     * @param key          the key
+     * @param defaultValue the value returned when the key is absent
+     * @return the mapped value, or the default value
+     */
+    public int get(long key, int defaultValue) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Check if a key is in the map
+     *
+     * @param key the key
+     * @return true if the key is mapped, false otherwise
+     */
+    public boolean containsKey(long key) {
+        return keys[slotOf(key)] == key;
+    }
+
+    /**
+     * Map a key to a value, replacing any previous value
+     *
+     * @param key   the key, must be non-negative
+     * @param value the value
+     */
+    public void put(long key, int value) {
+        int slot = slotOf(key);
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size > resizeThreshold) {
+                rehash(keys.length << 1);
+            }
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Remove a key from the map
+     *
+     * @param key the key
+     * @return true if the key was mapped, false otherwise
+     */
+    public boolean remove(long key) {
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            return false;
+        }
+
+        // Shift the following entries of the probe chain back so lookups never stop at a hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = FREE_KEY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+    }
+
+    /**
+     * Spread the bits of a packed board, consecutive boards only differ in a few low bits
+     *
+     * @param key the key
+     * @return the mixed hash
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -1,13 +1,30 @@
-import java.util.HashMap;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
-public class OpenList {
-    private HashMap<String, GameState> mapping; // Keep track of the best object for each game state
-    private TreeSet<GameState> orderedSet; // The real open list
+public class OpenList implements Frontier {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    
+    private final boolean canonicalKeys;
+    private LongIntHashMap mapping; // Keep track of the heap position of the best object for each game state
+    private GameState[] heap; // The real open list, a binary heap ordered by GameState.compareTo
+    private long[] keys; // Duplicate detection key of each heap entry
+    private int size;
+    private int peakSize;
+    private long duplicateCount;
     
     public OpenList() {
-        mapping = new HashMap<>();
-        orderedSet = new TreeSet<>();
+        this(false);
+    }
+    
+    /**
+     * @param canonicalKeys treat boards that are images of each other under Symmetry as the same game state
+     */
+    public OpenList(boolean canonicalKeys) {
+        this.canonicalKeys = canonicalKeys;
+        mapping = new LongIntHashMap(DEFAULT_CAPACITY);
+        heap = new GameState[DEFAULT_CAPACITY];
+        keys = new long[DEFAULT_CAPACITY];
+        size = 0;
     }
 
     
@@ -19,18 +36,21 @@ public class OpenList {
      * @param gameState the game state
      * @return true if the game state is added, false otherwise
      */
+    @Override
     public boolean addNewItem(GameState gameState) {
-        String gameStateString = gameState.toString();
-        GameState currentState = mapping.getOrDefault(gameStateString, null);
-        if (currentState == null) {
-            addToList(gameState);
+        long key = canonicalKeys ? Symmetry.canonical(gameState.getBoard()) : gameState.getBoard();
+        int position = mapping.get(key, -1);
+        if (position < 0) {
+            addToList(gameState, key);
+            peakSize = Math.max(peakSize, size);
             return true;
         } else {
-            double currentCost = currentState.getActualCostToReach() + currentState.getHeuristicValue();
-            double newCost = gameState.getActualCostToReach() + gameState.getHeuristicValue();
-            if (newCost < currentCost) {
-                removeFromList(currentState);
-                addToList(gameState);
+            duplicateCount++;
+            GameState currentState = heap[position];
+            if (gameState.getEstimatedTotalCost() < currentState.getEstimatedTotalCost()) {
+                // Decrease-key: the new object takes the place of the old one, then moves up
+                heap[position] = gameState;
+                siftUp(position);
                 return true;
             }
             return false;
@@ -42,11 +62,18 @@ public class OpenList {
      *
      * @return the first game state in the open list
      */
+    @Override
     public GameState pollFirstItem() {
-        if (!orderedSet.isEmpty()) {
-            GameState firstItem = orderedSet.pollFirst();
-            assert firstItem != null;
-            mapping.remove(firstItem.toString());
+        if (size > 0) {
+            GameState firstItem = heap[0];
+            mapping.remove(keys[0]);
+            GameState lastItem = heap[--size];
+            heap[size] = null;
+            if (size > 0) {
+                heap[0] = lastItem;
+                keys[0] = keys[size];
+                siftDown(0);
+            }
             return firstItem;
         }
         return null;
@@ -57,17 +84,84 @@ public class OpenList {
      *
      * @return true if the list is empty, false otherwise
      */
+    @Override
     public boolean isEmpty() {
-        return orderedSet.isEmpty();
+        return size == 0;
+    }
+    
+    /**
+     * Get the number of game states in the list
+     *
+     * @return the size of the list
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+    
+    @Override
+    public int getPeakSize() {
+        return peakSize;
+    }
+    
+    @Override
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+    
+    @Override
+    public void forEachItem(Consumer<GameState> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(heap[i]);
+        }
+    }
+    
+    private void addToList(GameState gameState, long key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size << 1);
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        heap[size] = gameState;
+        keys[size] = key;
+        siftUp(size++);
     }
     
-    private void addToList(GameState gameState) {
-        mapping.put(gameState.toString(), gameState);
-        orderedSet.add(gameState);
+    private void siftUp(int position) {
+        GameState item = heap[position];
+        long key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].compareTo(item) <= 0) {
+                break;
+            }
+            place(heap[parent], keys[parent], position);
+            position = parent;
+        }
+        place(item, key, position);
+    }
+    
+    private void siftDown(int position) {
+        GameState item = heap[position];
+        long key = keys[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].compareTo(heap[child]) < 0) {
+                child = right;
+            }
+            if (item.compareTo(heap[child]) <= 0) {
+                break;
+            }
+            place(heap[child], keys[child], position);
+            position = child;
+        }
+        place(item, key, position);
     }
     
-    private void removeFromList(GameState gameState) {
-        mapping.remove(gameState.toString());
-        orderedSet.remove(gameState);
+    private void place(GameState gameState, long key, int position) {
+        heap[position] = gameState;
+        keys[position] = key;
+        mapping.put(key, position);
     }
 }
@@ -0,0 +1,54 @@
+/**
+ * Solve by walking down the exhaustive distance table of the candies of the puzzle, see DistanceOracle
+ * The first puzzle of each candy set pays for building the table, every other one is a table lookup per move.
+ * Candy sets whose table would be too large are solved by a plain A* search instead
+ */
+public class OracleBot implements SearchEngine {
+    private Bot fallback; // The A* search of the last puzzle, null if it was solved from the table
+    private SearchMetrics metrics;
+
+    /**
+     * @param rootGameState the initial game state
+     * @return a goal state reached in the fewest moves possible, null if there is none
+     */
+    @Override
+    public GameState play(GameState rootGameState) {
+        DistanceOracle oracle = DistanceOracle.forCandiesCount(rootGameState.getCandiesCount());
+        if (oracle == null) {
+            fallback = new Bot();
+            return fallback.play(rootGameState);
+        }
+        fallback = null;
+
+        // One board walked per move, building or loading the table counts as search time
+        metrics = new SearchMetrics();
+        metrics.start();
+        int[] moves = oracle.solve(rootGameState.getBoard());
+        metrics.stop();
+        if (moves == null) {
+            return null;
+        }
+        metrics.addExpanded(moves.length);
+        GameState gameState = rootGameState.clone();
+        for (int move : moves) {
+            gameState.moveCandyAt(move);
+        }
+        return gameState;
+    }
+
+    /**
+     * @return the metrics of the A* search when the table was too large, of the table walk otherwise
+     */
+    @Override
+    public SearchMetrics getMetrics() {
+        return fallback != null ? fallback.getMetrics() : metrics;
+    }
+
+    /**
+     * @return true when the puzzle was solved from the table, otherwise whether the A* search was optimal
+     */
+    @Override
+    public boolean isOptimal() {
+        return fallback == null || fallback.isOptimal();
+    }
+}
@@ -0,0 +1,275 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash distributed A* (HDA*): every board is owned by one worker thread chosen by hashing the packed board
+ * Each worker keeps its own open list and best known costs, and sends the children it does not own
+ * to their owner's inbox
+ *
+ * The search ends when every worker is idle and no message is in flight. A worker is idle when its
+ * open list holds nothing cheaper than the best goal found so far, so with an admissible heuristic the
+ * returned goal is optimal, the same guarantee as a sequential A* run
+ *
+ * Under Config.SEARCH.USE_SYMMETRY_REDUCTION, boards are owned and compared by their canonical form,
+ * so mirror images of a board land on the same worker and count as one game state
+ */
+public class ParallelBot implements SearchEngine {
+    private static final long IDLE_WAIT_NANOS = 50_000L;
+
+    private final int workerCount;
+    private final boolean usePatternDatabase;
+    private Worker[] workers;
+
+    // Messages in flight plus busy workers: once it reaches zero it can never rise again
+    private final AtomicLong outstandingWork = new AtomicLong();
+    private final Object incumbentLock = new Object();
+    private volatile GameState incumbent;
+    private volatile int incumbentCost;
+    private PatternHeuristic patternHeuristic; // Null without the pattern databases
+    private SearchMetrics metrics;
+
+    public ParallelBot() {
+        this(Config.SEARCH.PARALLEL_SEARCH_THREADS);
+    }
+
+    /**
+     * @param workerCount the number of worker threads
+     */
+    public ParallelBot(int workerCount) {
+        this(workerCount, Config.SEARCH.USE_PATTERN_DATABASE);
+    }
+
+    /**
+     * @param workerCount        the number of worker threads
+     * @param usePatternDatabase estimate with the pattern databases instead of the column estimate of Heuristic
+     */
+    public ParallelBot(int workerCount, boolean usePatternDatabase) {
+        this.workerCount = Math.max(1, workerCount);
+        this.usePatternDatabase = usePatternDatabase;
+    }
+
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics = new SearchMetrics();
+        metrics.start();
+        try {
+            return search(rootGameState);
+        } finally {
+            for (Worker worker : workers) {
+                metrics.addAll(worker.metrics);
+            }
+            metrics.stop();
+        }
+    }
+
+    /**
+     * @return the counters of the last search, summed over the workers
+     */
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return true when the search used the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return patternHeuristic != null;
+    }
+
+    private GameState search(GameState rootGameState) {
+        incumbent = null;
+        incumbentCost = Integer.MAX_VALUE;
+        workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker();
+        }
+
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState, usePatternDatabase);
+        if (patternHeuristic != null) {
+            rootGameState.setHeuristicValue(patternHeuristic.estimate(rootGameState.getBoard()));
+        } else {
+            Bot.computeHeuristicValue(rootGameState);
+        }
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+        send(rootGameState, keyOf(rootGameState));
+
+        List<Thread> threads = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(workers[i], "hda-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            return null;
+        }
+
+        for (Worker worker : workers) {
+            if (worker.failure != null) {
+                throw worker.failure;
+            }
+        }
+        return incumbent;
+    }
+
+    /**
+     * Get the worker that owns a board
+     * Uses the high bits of a multiplicative hash, the workers' own hash tables use the low bits
+     *
+     * @param key the packed board, canonical under symmetry reduction
+     * @return the owning worker index
+     */
+    private int ownerOf(long key) {
+        return (int) (((key * 0x9E3779B97F4A7C15L) >>> 33) % workerCount);
+    }
+
+    private static long keyOf(GameState gameState) {
+        return Config.SEARCH.USE_SYMMETRY_REDUCTION ? Symmetry.canonical(gameState.getBoard()) : gameState.getBoard();
+    }
+
+    private void send(GameState gameState, long key) {
+        outstandingWork.incrementAndGet();
+        workers[ownerOf(key)].inbox.add(gameState);
+    }
+
+    private void offerGoal(GameState goalState) {
+        synchronized (incumbentLock) {
+            if (goalState.getActualCostToReach() < incumbentCost) {
+                incumbent = goalState;
+                incumbentCost = goalState.getActualCostToReach();
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final ConcurrentLinkedQueue<GameState> inbox = new ConcurrentLinkedQueue<>();
+        private final OpenList openList = new OpenList(Config.SEARCH.USE_SYMMETRY_REDUCTION);
+        private final LongIntHashMap bestCosts = new LongIntHashMap(); // Lowest g(n) seen for each owned key
+        private final SearchMetrics metrics = new SearchMetrics(); // Read by play once the worker stopped
+        private boolean idle = true;
+        private RuntimeException failure;
+
+        @Override
+        public void run() {
+            try {
+                while (outstandingWork.get() > 0 && !Thread.currentThread().isInterrupted()) {
+                    drainInbox();
+                    GameState bestNewState = pollUsefulItem();
+                    if (bestNewState != null) {
+                        processState(bestNewState);
+                    } else if (!idle) {
+                        idle = true;
+                        outstandingWork.decrementAndGet();
+                    } else {
+                        LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                // Let the other workers stop instead of waiting for this one forever
+                outstandingWork.set(0);
+            } finally {
+                metrics.addDuplicates(openList.getDuplicateCount());
+                metrics.setPeakSizes(openList.getPeakSize(), bestCosts.size());
+            }
+        }
+
+        private void drainInbox() {
+            GameState message;
+            while ((message = inbox.poll()) != null) {
+                if (idle) {
+                    // Count as busy before the message stops counting as in flight
+                    idle = false;
+                    outstandingWork.incrementAndGet();
+                }
+                outstandingWork.decrementAndGet();
+                receive(message, keyOf(message));
+            }
+        }
+
+        /**
+         * Keep a game state if it reaches its board cheaper than before, reopening boards already processed
+         *
+         * @param gameState the game state owned by this worker
+         * @param key       its key, see keyOf
+         */
+        private void receive(GameState gameState, long key) {
+            if (gameState.getActualCostToReach() >= bestCosts.get(key, Integer.MAX_VALUE)) {
+                metrics.addDuplicates(1);
+            } else if (gameState.getEstimatedTotalCost() < incumbentCost) {
+                bestCosts.put(key, gameState.getActualCostToReach());
+                openList.addNewItem(gameState);
+            }
+        }
+
+        /**
+         * Poll the open list, dropping everything that cannot beat the best goal found so far
+         *
+         * @return the best game state worth processing, null if there is none
+         */
+        private GameState pollUsefulItem() {
+            GameState bestNewState;
+            while ((bestNewState = openList.pollFirstItem()) != null) {
+                if (bestNewState.getEstimatedTotalCost() < incumbentCost) {
+                    return bestNewState;
+                }
+            }
+            return null;
+        }
+
+        private void processState(GameState gameState) {
+            if (gameState.isGoalState()) {
+                offerGoal(gameState);
+                return;
+            }
+            int owner = ownerOf(keyOf(gameState));
+            metrics.addExpanded();
+
+            int[] validMovesList = Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex());
+            for (int move : validMovesList) {
+                GameState childState = gameState.clone();
+                childState.moveCandyAt(move);
+                metrics.addGenerated();
+                if (metrics.sampleHeuristic()) {
+                    long heuristicStartTime = System.nanoTime();
+                    evaluate(gameState, childState, move);
+                    metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+                } else {
+                    evaluate(gameState, childState, move);
+                }
+                if (childState.getEstimatedTotalCost() >= incumbentCost) {
+                    continue;
+                }
+                long childKey = keyOf(childState);
+                if (ownerOf(childKey) == owner) {
+                    receive(childState, childKey);
+                } else {
+                    send(childState, childKey);
+                }
+            }
+        }
+
+        private void evaluate(GameState parentState, GameState childState, int move) {
+            if (patternHeuristic != null) {
+                childState.setHeuristicValue(patternHeuristic.estimate(childState.getBoard()));
+            } else {
+                Bot.updateHeuristicValue(parentState, childState, move);
+            }
+        }
+    }
+}
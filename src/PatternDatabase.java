@@ -0,0 +1,197 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Exact distances to the goal in an abstraction of the board that only tells apart some candy kinds
+ * The other candies all become one wildcard kind, and only moves of the kept candies are counted,
+ * so the databases of disjoint groups of candies can be added together and stay admissible:
+ * every real move moves exactly one candy, counted by exactly one database
+ */
+public class PatternDatabase {
+    private static final int UNKNOWN = 0xFF;
+    static final int WILDCARD_CLASS = Board.CODE_COUNT - 1;
+
+    private final BoardRanker ranker;
+    private final ByteBuffer distances; // Unsigned distance of every abstract board, indexed by rank
+
+    private PatternDatabase(BoardRanker ranker, ByteBuffer distances) {
+        this.ranker = ranker;
+        this.distances = distances;
+    }
+
+    /**
+     * Get the number of moves of kept candies needed to reach a goal from a board
+     *
+     * @param board the packed board, holding the candies this database was built for
+     * @return a lower bound of the moves of kept candies to a goal
+     */
+    public int lookup(long board) {
+        return distances.get((int) ranker.rank(board)) & 0xFF;
+    }
+
+    /**
+     * Load the database of a candy group from the table directory, building and saving it if it is missing
+     * or stale. Saved databases are memory-mapped rather than read, see TableFile
+     *
+     * @param candiesCount  the number of cells holding each candy code
+     * @param keptCodesMask bit c is set for every candy code c told apart by the abstraction
+     * @param directory     the table directory
+     * @return the database
+     */
+    public static PatternDatabase load(int[] candiesCount, int keptCodesMask, File directory) {
+        BoardRanker ranker = newRanker(candiesCount, keptCodesMask);
+        File file = new File(directory, fileName(candiesCount, keptCodesMask));
+        long identity = identityOf(candiesCount, keptCodesMask);
+        if (file.isFile()) {
+            try {
+                return new PatternDatabase(ranker, TableFile.map(file, TableFile.KIND_PATTERN_DATABASE, identity, ranker.size()));
+            } catch (IOException e) {
+                System.err.println("Rebuilding pattern database " + file + ": " + e.getMessage());
+            }
+        }
+
+        byte[] distances = computeDistances(ranker, keptCodesMask);
+        try {
+            TableFile.write(file, TableFile.KIND_PATTERN_DATABASE, identity, distances);
+            // Map the saved copy so the heap copy can be collected
+            return new PatternDatabase(ranker, TableFile.map(file, TableFile.KIND_PATTERN_DATABASE, identity, distances.length));
+        } catch (IOException e) {
+            System.err.println("Cannot save pattern database " + file + ": " + e.getMessage());
+            return new PatternDatabase(ranker, ByteBuffer.wrap(distances));
+        }
+    }
+
+    /**
+     * Get the number of abstract boards of a candy group, which is also the size of its table in bytes
+     *
+     * @param candiesCount  the number of cells holding each candy code
+     * @param keptCodesMask bit c is set for every candy code c told apart by the abstraction
+     * @return the number of abstract boards
+     */
+    public static long sizeOf(int[] candiesCount, int keptCodesMask) {
+        return newRanker(candiesCount, keptCodesMask).size();
+    }
+
+    /**
+     * Breadth first search backward from every abstract goal board, moves are reversible so backward
+     * and forward moves are the same. Wildcard moves are free, hence a 0-1 search with a deque
+     *
+     * @param candiesCount  the number of cells holding each candy code
+     * @param keptCodesMask bit c is set for every candy code c told apart by the abstraction
+     * @return the database
+     */
+    static PatternDatabase build(int[] candiesCount, int keptCodesMask) {
+        BoardRanker ranker = newRanker(candiesCount, keptCodesMask);
+        return new PatternDatabase(ranker, ByteBuffer.wrap(computeDistances(ranker, keptCodesMask)));
+    }
+
+    private static byte[] computeDistances(BoardRanker ranker, int keptCodesMask) {
+        if (ranker.size() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many abstract boards: " + ranker.size());
+        }
+        int size = (int) ranker.size();
+        byte[] distances = new byte[size];
+        Arrays.fill(distances, (byte) UNKNOWN);
+
+        IntDeque deque = new IntDeque();
+        for (int rank = 0; rank < size; rank++) {
+            if (Board.isGoal(ranker.unrank(rank))) {
+                distances[rank] = 0;
+                deque.addLast(rank);
+            }
+        }
+
+        while (!deque.isEmpty()) {
+            int rank = deque.pollFirst();
+            int distance = distances[rank] & 0xFF;
+            long board = ranker.unrank(rank);
+            int emptyCellIndex = Board.findEmpty(board);
+            for (int movedCellIndex : Config.GAME_RULES.getNeighbourIndexes(emptyCellIndex)) {
+                boolean isKept = (keptCodesMask & (1 << Board.get(board, movedCellIndex))) != 0;
+                int childDistance = Math.min(distance + (isKept ? 1 : 0), UNKNOWN - 1);
+                int childRank = (int) ranker.rank(Board.move(board, movedCellIndex, emptyCellIndex));
+                if (childDistance < (distances[childRank] & 0xFF)) {
+                    distances[childRank] = (byte) childDistance;
+                    if (isKept) {
+                        deque.addLast(childRank);
+                    } else {
+                        deque.addFirst(childRank);
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static BoardRanker newRanker(int[] candiesCount, int keptCodesMask) {
+        int[] classOfCode = new int[Board.CODE_COUNT];
+        for (int code = 0; code < Board.CODE_COUNT; code++) {
+            boolean isKept = code == Board.EMPTY || (keptCodesMask & (1 << code)) != 0;
+            classOfCode[code] = isKept ? code : WILDCARD_CLASS;
+        }
+        return new BoardRanker(candiesCount, classOfCode);
+    }
+
+    static String fileName(int[] candiesCount, int keptCodesMask) {
+        StringBuilder stringBuilder = new StringBuilder("pdb");
+        for (int count : candiesCount) {
+            stringBuilder.append('-').append(count);
+        }
+        return stringBuilder.append('-').append(Integer.toHexString(keptCodesMask)).append(".pdb").toString();
+    }
+
+    /**
+     * @param candiesCount  the number of cells holding each candy code
+     * @param keptCodesMask bit c is set for every candy code c told apart by the abstraction
+     * @return the identity stored in the table file header: the candies then the mask
+     */
+    private static long identityOf(int[] candiesCount, int keptCodesMask) {
+        return (TableFile.identityOf(candiesCount) << Board.CODE_COUNT) | keptCodesMask;
+    }
+
+    /**
+     * Growable circular deque of ints
+     */
+    private static final class IntDeque {
+        private int[] items = new int[1 << 12];
+        private int head;
+        private int size;
+
+        void addFirst(int item) {
+            ensureCapacity();
+            head = (head - 1) & (items.length - 1);
+            items[head] = item;
+            size++;
+        }
+
+        void addLast(int item) {
+            ensureCapacity();
+            items[(head + size) & (items.length - 1)] = item;
+            size++;
+        }
+
+        int pollFirst() {
+            int item = items[head];
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return item;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == items.length) {
+                int[] newItems = new int[items.length << 1];
+                for (int i = 0; i < size; i++) {
+                    newItems[i] = items[(head + i) & (items.length - 1)];
+                }
+                items = newItems;
+                head = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Heuristic backed by pattern databases, for boards holding one multiset of candies
+ * The candy kinds are split into groups small enough to tabulate and the group databases are added together,
+ * which never overestimates, so unlike the column estimate of Heuristic it keeps A* optimal
+ */
+public class PatternHeuristic {
+    private static final ConcurrentMap<String, PatternHeuristic> LOADED = new ConcurrentHashMap<>();
+    
+    private final int[] candiesCount;
+    private volatile PatternDatabase[] databases; // Loaded on first use
+    
+    private PatternHeuristic(int[] candiesCount) {
+        this.candiesCount = candiesCount;
+    }
+    
+    /**
+     * Get the pattern heuristic of a multiset of candies, shared by every search on boards holding it
+     *
+     * @param candiesCount the number of cells holding each candy code
+     * @return the pattern heuristic
+     */
+    public static PatternHeuristic forCandiesCount(int[] candiesCount) {
+        final int[] counts = candiesCount.clone();
+        return LOADED.computeIfAbsent(Arrays.toString(counts), key -> new PatternHeuristic(counts));
+    }
+    
+    /**
+     * Get the pattern heuristic a search from an initial state should use
+     *
+     * @param rootGameState the initial game state
+     * @return the pattern heuristic of its candies, null when Config.SEARCH.USE_PATTERN_DATABASE is off
+     */
+    public static PatternHeuristic forSearch(GameState rootGameState) {
+        return forSearch(rootGameState, Config.SEARCH.USE_PATTERN_DATABASE);
+    }
+    
+    /**
+     * @param rootGameState      the initial game state
+     * @param usePatternDatabase whether the search uses the pattern databases
+     * @return the pattern heuristic of its candies, null if the search does not use them
+     */
+    public static PatternHeuristic forSearch(GameState rootGameState, boolean usePatternDatabase) {
+        return usePatternDatabase ? forCandiesCount(rootGameState.getCandiesCount()) : null;
+    }
+    
+    /**
+     * Estimate the number of moves from a board to a goal
+     *
+     * @param board the packed board
+     * @return the sum of the pattern databases, a lower bound of the moves to a goal
+     */
+    public int estimate(long board) {
+        int patternValue = 0;
+        for (PatternDatabase database : getDatabases()) {
+            patternValue += database.lookup(board);
+        }
+        return patternValue;
+    }
+    
+    private PatternDatabase[] getDatabases() {
+        PatternDatabase[] loadedDatabases = databases;
+        if (loadedDatabases == null) {
+            synchronized (this) {
+                loadedDatabases = databases;
+                if (loadedDatabases == null) {
+                    File directory = new File(Config.SEARCH.TABLE_DIRECTORY);
+                    List<PatternDatabase> databaseList = new ArrayList<>();
+                    for (int keptCodesMask : groupCandies(candiesCount)) {
+                        databaseList.add(PatternDatabase.load(candiesCount, keptCodesMask, directory));
+                    }
+                    loadedDatabases = databaseList.toArray(new PatternDatabase[0]);
+                    databases = loadedDatabases;
+                }
+            }
+        }
+        return loadedDatabases;
+    }
+    
+    /**
+     * Split the candy kinds into groups whose abstract boards fit in Config.SEARCH.PATTERN_DATABASE_MAX_STATES,
+     * most common kinds first
+     *
+     * @param candiesCount the number of cells holding each candy code
+     * @return the kept code mask of every group
+     */
+    static List<Integer> groupCandies(int[] candiesCount) {
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < candiesCount.length; code++) {
+            if (code != Board.EMPTY && candiesCount[code] > 0) {
+                codes.add(code);
+            }
+        }
+        codes.sort((code, otherCode) -> candiesCount[otherCode] - candiesCount[code]);
+        
+        List<Integer> groups = new ArrayList<>();
+        int group = 0;
+        for (int code : codes) {
+            int largerGroup = group | (1 << code);
+            if (group != 0 && PatternDatabase.sizeOf(candiesCount, largerGroup) > Config.SEARCH.PATTERN_DATABASE_MAX_STATES) {
+                groups.add(group);
+                largerGroup = 1 << code;
+            }
+            group = largerGroup;
+        }
+        if (group != 0) {
+            groups.add(group);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * Snapshot of the open and closed lists of a running A* search, so a search stopped by a restart resumes
+ * where it was instead of from zero, see Bot
+ *
+ * Saved as a TableFile identified by the initial board, replaced in a single rename, so a crash while saving
+ * leaves the previous checkpoint intact. Payload: flags (int), number of closed keys (int), the closed keys
+ * (long each), number of open game states (int), the open game states (see GameStateCodec)
+ *
+ * A search holds an exclusive lock on the byte of the lock file at the position of its initial board while
+ * it uses its checkpoint, so two searches of the same board, in this JVM or another process, never write or
+ * resume the same checkpoint. Every board shares the one lock file, which stays in place. It is opened once per
+ * JVM, since closing any channel of a file may release every lock the JVM holds on it. The flags record the
+ * settings the lists depend on, a checkpoint saved under other settings is not resumed
+ */
+public final class SearchCheckpoint implements Closeable {
+    private static final int CANONICAL_KEYS = 1;
+    private static final int PATTERN_DATABASE = 2;
+    private static final String LOCK_FILE = "search.lock";
+    private static final Object LOCK_CHANNEL_LOCK = new Object();
+    private static FileChannel lockChannel; // Opened on the first checkpoint, left open until the JVM exits
+
+    private final File file;
+    private final long rootBoard;
+    private final int flags;
+    private final FileLock lock;
+
+    private SearchCheckpoint(File file, long rootBoard, int flags, FileLock lock) {
+        this.file = file;
+        this.rootBoard = rootBoard;
+        this.flags = flags;
+        this.lock = lock;
+    }
+
+    /**
+     * @param rootBoard the initial packed board of a search
+     * @return true if an earlier search of the board left a checkpoint
+     */
+    public static boolean exists(long rootBoard) {
+        return fileOf(rootBoard).isFile();
+    }
+
+    /**
+     * Take the checkpoint of a search, in Config.SEARCH.CHECKPOINT_DIRECTORY
+     *
+     * @param rootBoard       the initial packed board of the search
+     * @param canonicalKeys   whether the closed keys are canonical under Symmetry
+     * @param patternDatabase whether the heuristic values come from the pattern databases
+     * @return the checkpoint, to close once the search ends, null if another search of the board holds it
+     *
+     * @throws IOException if the lock file cannot be created or locked
+     */
+    public static SearchCheckpoint open(long rootBoard, boolean canonicalKeys, boolean patternDatabase)
+            throws IOException {
+        int flags = (canonicalKeys ? CANONICAL_KEYS : 0) | (patternDatabase ? PATTERN_DATABASE : 0);
+        FileLock lock;
+        try {
+            lock = getLockChannel().tryLock(rootBoard, 1, false);
+        } catch (OverlappingFileLockException e) {
+            return null; // Held by another search of this JVM
+        }
+        return lock != null ? new SearchCheckpoint(fileOf(rootBoard), rootBoard, flags, lock) : null;
+    }
+
+    private static FileChannel getLockChannel() throws IOException {
+        synchronized (LOCK_CHANNEL_LOCK) {
+            if (lockChannel == null) {
+                File directory = new File(Config.SEARCH.CHECKPOINT_DIRECTORY);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("cannot create " + directory);
+                }
+                lockChannel = new RandomAccessFile(new File(directory, LOCK_FILE), "rw").getChannel();
+            }
+            return lockChannel;
+        }
+    }
+
+    private static File fileOf(long rootBoard) {
+        return new File(Config.SEARCH.CHECKPOINT_DIRECTORY, String.format("search-%012x.ckpt", rootBoard));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @param openList   the open list
+     * @param closedList the closed list
+     *
+     * @throws IOException if the file cannot be written or the search is too large for one file
+     */
+    public void save(Frontier openList, LongHashSet closedList) throws IOException {
+        long[] openLength = {0L};
+        openList.forEachItem(gameState -> openLength[0] += GameStateCodec.encodedLength(gameState));
+        long length = 3L * Integer.BYTES + (long) closedList.size() * Long.BYTES + openLength[0];
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("search too large to checkpoint: " + length + " bytes");
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate((int) length);
+        payload.putInt(flags);
+        payload.putInt(closedList.size());
+        closedList.forEach(payload::putLong);
+        payload.putInt(openList.getSize());
+        openList.forEachItem(gameState -> GameStateCodec.write(payload, gameState));
+        TableFile.write(file, TableFile.KIND_SEARCH_CHECKPOINT, rootBoard, payload.array());
+    }
+
+    /**
+     * Fill empty open and closed lists from the saved checkpoint
+     *
+     * @param openList   the empty open list
+     * @param closedList the empty closed list
+     * @return true if the lists are restored, false if there is no checkpoint
+     *
+     * @throws IOException if the file cannot be read, is corrupted, or was saved under other settings
+     */
+    public boolean restore(Frontier openList, LongHashSet closedList) throws IOException {
+        if (!file.isFile()) {
+            return false;
+        }
+        ByteBuffer payload = TableFile.map(file, TableFile.KIND_SEARCH_CHECKPOINT, rootBoard);
+        if (payload.getInt() != flags) {
+            throw new IOException("checkpoint of a search with other settings");
+        }
+        for (int i = payload.getInt(); i > 0; i--) {
+            closedList.add(payload.getLong());
+        }
+        for (int i = payload.getInt(); i > 0; i--) {
+            openList.addNewItem(GameStateCodec.read(payload));
+        }
+        return true;
+    }
+
+    /**
+     * Delete the saved checkpoint, once the search it belongs to is over
+     *
+     * @throws IOException if the file exists but cannot be deleted
+     */
+    public void delete() throws IOException {
+        if (file.isFile() && !file.delete()) {
+            throw new IOException("cannot delete " + file);
+        }
+    }
+
+    /**
+     * Release the lock on the board, the lock file stays open for the next checkpoint
+     */
+    @Override
+    public void close() throws IOException {
+        lock.release();
+    }
+}
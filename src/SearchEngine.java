@@ -0,0 +1,70 @@
+/**
+ * A search algorithm that takes an initial game state to a goal state
+ */
+public interface SearchEngine {
+    /**
+     * Search for a goal state reachable from the initial game state
+     *
+     * @param rootGameState the initial game state
+     * @return the goal state reached, with the steps taken to reach it, or null if there is none
+     */
+    GameState play(GameState rootGameState);
+    
+    /**
+     * Get how far the last goal state returned by play may be from an optimal one
+     *
+     * @return the highest ratio between its cost and the optimal cost, 1 for engines that always search to the end,
+     * NaN when the engine cannot bound it
+     */
+    default double getSuboptimalityBound() {
+        return 1.0;
+    }
+    
+    /**
+     * Check if the last goal state returned by play is known to be optimal, which takes an exhaustive search
+     * or an admissible heuristic; the column estimate of Heuristic is not one
+     *
+     * @return true if no goal state is cheaper, false if one may be
+     */
+    default boolean isOptimal() {
+        return false;
+    }
+    
+    /**
+     * Get the counters of the last search
+     *
+     * @return the metrics of the last call to play, null if the engine does not collect any
+     */
+    default SearchMetrics getMetrics() {
+        return null;
+    }
+    
+    /**
+     * Create a new engine of the given kind, engines keep per-search state so use one per puzzle
+     *
+     * @param engine the kind of engine
+     * @return the new engine
+     */
+    static SearchEngine create(Config.SEARCH.ENGINE engine) {
+        switch (engine) {
+            case A_STAR:
+                return new Bot();
+            case PARALLEL_A_STAR:
+                return new ParallelBot();
+            case IDA_STAR:
+                return new IdaStarBot();
+            case BIDIRECTIONAL:
+                return new BidirectionalBot();
+            case ANYTIME:
+                return new AnytimeBot();
+            case DISTANCE_ORACLE:
+                return new OracleBot();
+            case EXTERNAL_A_STAR:
+                return new ExternalMemoryBot();
+            case SMA_STAR:
+                return new SmaStarBot();
+            default:
+                throw new IllegalArgumentException("Unknown search engine " + engine);
+        }
+    }
+}
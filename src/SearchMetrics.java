@@ -0,0 +1,183 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Counters of one search, to tell whether a slow puzzle is slow because of the number of game states,
+ * the heuristic, the data structures or the garbage collector
+ *
+ * Garbage collection time is read from the JVM wide collector totals, so it includes the work of other
+ * searches running at the same time. Heuristic time is extrapolated from one timed evaluation in
+ * HEURISTIC_SAMPLE_INTERVAL, reading the clock around every evaluation would cost as much as most of them
+ */
+public class SearchMetrics {
+    public static final String CSV_HEADER = "expanded,generated,duplicates,peak_open,peak_closed,"
+            + "heuristic_ms,search_ms,gc_ms,nodes_per_second";
+    static final int HEURISTIC_SAMPLE_INTERVAL = 64;
+
+    private long expandedCount;
+    private long generatedCount;
+    private long duplicateCount;
+    private long peakOpenSize;
+    private long peakClosedSize;
+    private long heuristicNanos;
+    private long heuristicCount;
+    private long elapsedNanos;
+    private long gcMillis;
+    private long startNanos;
+    private long startGcMillis;
+
+    void start() {
+        startGcMillis = totalGcMillis();
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        gcMillis = totalGcMillis() - startGcMillis;
+    }
+
+    void addExpanded() {
+        expandedCount++;
+    }
+
+    void addExpanded(long count) {
+        expandedCount += count;
+    }
+
+    void addGenerated() {
+        generatedCount++;
+    }
+
+    void addDuplicates(long count) {
+        duplicateCount += count;
+    }
+
+    void addHeuristicTime(long nanos) {
+        heuristicNanos += nanos;
+    }
+
+    /**
+     * Count one heuristic evaluation
+     *
+     * @return true if the caller should time this evaluation and pass the time to addHeuristicSample
+     */
+    boolean sampleHeuristic() {
+        return heuristicCount++ % HEURISTIC_SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * @param nanos the time of one evaluation sampled by sampleHeuristic, standing for the whole interval
+     */
+    void addHeuristicSample(long nanos) {
+        heuristicNanos += nanos * HEURISTIC_SAMPLE_INTERVAL;
+    }
+
+    void setPeakSizes(long peakOpenSize, long peakClosedSize) {
+        this.peakOpenSize = peakOpenSize;
+        this.peakClosedSize = peakClosedSize;
+    }
+
+    /**
+     * Add the counters of a part of the search run by another thread, their peak sizes add up
+     *
+     * @param other the counters of the part, not running anymore
+     */
+    void addAll(SearchMetrics other) {
+        expandedCount += other.expandedCount;
+        generatedCount += other.generatedCount;
+        duplicateCount += other.duplicateCount;
+        peakOpenSize += other.peakOpenSize;
+        peakClosedSize += other.peakClosedSize;
+        heuristicNanos += other.heuristicNanos;
+    }
+
+    /**
+     * @return the number of game states processed
+     */
+    public long getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * @return the number of child game states created
+     */
+    public long getGeneratedCount() {
+        return generatedCount;
+    }
+
+    /**
+     * @return the number of game states found already open or already processed
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public long getPeakOpenSize() {
+        return peakOpenSize;
+    }
+
+    public long getPeakClosedSize() {
+        return peakClosedSize;
+    }
+
+    /**
+     * @return the time spent evaluating the heuristic, estimated from the sampled evaluations, in nanoseconds
+     */
+    public long getHeuristicNanos() {
+        return heuristicNanos;
+    }
+
+    /**
+     * @return the time spent in the whole search, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the garbage collection time while the search ran, in milliseconds
+     */
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    /**
+     * @return the game states processed per second of search
+     */
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : expandedCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return the counters in the order of CSV_HEADER
+     */
+    public String toCsvRow() {
+        return String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%.3f,%.3f,%d,%.0f", expandedCount, generatedCount,
+                duplicateCount, peakOpenSize, peakClosedSize, heuristicNanos / 1e6, elapsedNanos / 1e6, gcMillis,
+                getNodesPerSecond());
+    }
+
+    /**
+     * @return the counters as a JSON object
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"expanded\":%d,\"generated\":%d,\"duplicates\":%d,\"peak_open\":%d,"
+                        + "\"peak_closed\":%d,\"heuristic_ms\":%.3f,\"search_ms\":%.3f,\"gc_ms\":%d,"
+                        + "\"nodes_per_second\":%.0f}", expandedCount, generatedCount, duplicateCount, peakOpenSize,
+                peakClosedSize, heuristicNanos / 1e6, elapsedNanos / 1e6, gcMillis, getNodesPerSecond());
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,309 @@
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Simplified memory-bounded A* (SMA*): an A* tree search that never keeps more than a fixed number of nodes
+ *
+ * When the budget is full, the leaf with the highest f(n) is dropped, shallowest first, and its f(n) is kept
+ * in its parent, so the parent knows how good the forgotten subtree was. The f(n) of a node is backed up as
+ * the lowest f(n) of its children. A node with forgotten children goes back to the open nodes, ordered by its
+ * best forgotten child, and generates them again when it is the best one left. The solution returned is
+ * optimal if the heuristic never overestimates and the budget holds the nodes along the optimal path with
+ * their siblings
+ */
+public class SmaStarBot implements SearchEngine {
+    private static final int INFINITE_COST = Integer.MAX_VALUE;
+    private static final int NOT_GENERATED = 0;
+    private static final int NO_PREVIOUS_CELL = -1;
+    private static final int NODE_BYTES = 200; // Rough heap size of a node with its arrays and its set entries
+
+    // Lowest cost first, the deepest first among equal costs
+    private static final Comparator<Node> OPEN_ORDER = Comparator.<Node>comparingInt(node -> node.openCost)
+            .thenComparing(Comparator.<Node>comparingInt(node -> node.depth).reversed())
+            .thenComparingLong(node -> node.id);
+    private static final Comparator<Node> LEAF_ORDER = Comparator.<Node>comparingInt(node -> node.estimatedTotalCost)
+            .thenComparing(Comparator.<Node>comparingInt(node -> node.depth).reversed())
+            .thenComparingLong(node -> node.id);
+
+    private final int nodeBudget;
+    private final boolean usePatternDatabase;
+    private final SearchMetrics metrics = new SearchMetrics();
+    private PatternHeuristic patternHeuristic; // Null without the pattern databases
+    private TreeSet<Node> open; // Nodes never expanded or with forgotten children, best first
+    private TreeSet<Node> leaves; // Nodes but the root without a child in memory, the one to forget last
+    private int nodeCount;
+    private long nextId;
+
+    public SmaStarBot() {
+        this(budgetOf(Config.SEARCH.SMA_STAR_MEMORY_BYTES));
+    }
+
+    /**
+     * @param nodeBudget the highest number of nodes kept at once
+     */
+    public SmaStarBot(int nodeBudget) {
+        this(nodeBudget, Config.SEARCH.USE_PATTERN_DATABASE);
+    }
+
+    /**
+     * @param nodeBudget         the highest number of nodes kept at once
+     * @param usePatternDatabase estimate with the pattern databases instead of the column estimate of Heuristic
+     */
+    public SmaStarBot(int nodeBudget, boolean usePatternDatabase) {
+        if (nodeBudget < 2) {
+            throw new IllegalArgumentException("Node budget too small: " + nodeBudget);
+        }
+        this.nodeBudget = nodeBudget;
+        this.usePatternDatabase = usePatternDatabase;
+    }
+
+    /**
+     * @param memoryBytes the heap the nodes of one search may take
+     * @return the number of nodes that fit in it
+     */
+    public static int budgetOf(long memoryBytes) {
+        return (int) Math.min(Integer.MAX_VALUE, memoryBytes / NODE_BYTES);
+    }
+
+    /**
+     * @param rootGameState the initial game state
+     * @return the goal state reached, null if there is none or the budget is too small to reach one
+     */
+    @Override
+    public GameState play(GameState rootGameState) {
+        metrics.start();
+        try {
+            return search(rootGameState);
+        } finally {
+            open = null;
+            leaves = null;
+            metrics.stop();
+        }
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return true when the search used the pattern databases, which never overestimate
+     */
+    @Override
+    public boolean isOptimal() {
+        return patternHeuristic != null;
+    }
+
+    private GameState search(GameState rootGameState) {
+        // Also times loading the pattern databases
+        long heuristicStartTime = System.nanoTime();
+        patternHeuristic = PatternHeuristic.forSearch(rootGameState, usePatternDatabase);
+        Node root = new Node(null, 0, rootGameState.getBoard(), rootGameState.getEmptyCellIndex(), NO_PREVIOUS_CELL,
+                nextId++);
+        root.estimatedTotalCost = estimate(root.board);
+        metrics.addHeuristicTime(System.nanoTime() - heuristicStartTime);
+
+        open = new TreeSet<>(OPEN_ORDER);
+        leaves = new TreeSet<>(LEAF_ORDER);
+        nodeCount = 1;
+        setOpenCost(root, root.estimatedTotalCost);
+        long peakOpenSize = 1;
+        long peakNodeCount = 1;
+        try {
+            while (!open.isEmpty()) {
+                Node best = open.pollFirst();
+                best.openCost = INFINITE_COST;
+                if (best.children == null && Board.isGoal(best.board)) {
+                    return replay(rootGameState, best);
+                }
+
+                if (!expand(best)) {
+                    return null;
+                }
+                peakOpenSize = Math.max(peakOpenSize, open.size());
+                peakNodeCount = Math.max(peakNodeCount, nodeCount);
+                while (nodeCount > nodeBudget && !leaves.isEmpty()) {
+                    forget(leaves.pollLast());
+                }
+            }
+            return null;
+        } finally {
+            metrics.setPeakSizes(peakOpenSize, peakNodeCount);
+        }
+    }
+
+    /**
+     * Generate the children of a node that are not in memory, then back its f(n) up
+     *
+     * @param node the best open node, already out of the open nodes
+     * @return false if the root is left without any child to search
+     */
+    private boolean expand(Node node) {
+        metrics.addExpanded();
+        int[] moves = Config.GAME_RULES.getNeighbourIndexes(node.emptyCellIndex);
+        if (node.children == null) {
+            node.children = new Node[moves.length];
+            node.childCosts = new int[moves.length];
+            for (int i = 0; i < moves.length; i++) {
+                node.childCosts[i] = moves[i] == node.previousEmptyCellIndex ? INFINITE_COST : NOT_GENERATED;
+            }
+        }
+        if (node.childrenInMemory == 0) {
+            leaves.remove(node);
+        }
+
+        for (int i = 0; i < moves.length; i++) {
+            if (node.children[i] != null || node.childCosts[i] == INFINITE_COST) {
+                continue;
+            }
+            Node child = new Node(node, i, Board.move(node.board, moves[i], node.emptyCellIndex), moves[i],
+                    node.emptyCellIndex, nextId++);
+            metrics.addGenerated();
+            if (child.depth >= nodeBudget - 1 && !Board.isGoal(child.board)) {
+                node.childCosts[i] = INFINITE_COST; // A path this long cannot fit in the budget
+                continue;
+            }
+            if (node.childCosts[i] == NOT_GENERATED) {
+                // Path max: a child never looks cheaper than its parent
+                child.estimatedTotalCost = Math.max(node.estimatedTotalCost, child.depth + sampledEstimate(child.board));
+            } else {
+                child.estimatedTotalCost = node.childCosts[i]; // Backed up before the child was forgotten
+            }
+            node.children[i] = child;
+            node.childCosts[i] = child.estimatedTotalCost;
+            node.childrenInMemory++;
+            nodeCount++;
+            setOpenCost(child, child.estimatedTotalCost);
+            leaves.add(child);
+        }
+
+        if (node.childrenInMemory == 0) {
+            // Every move undoes the last one or goes too deep, nothing below this node
+            node.estimatedTotalCost = INFINITE_COST;
+            if (node.parent == null) {
+                return false;
+            }
+            forget(node);
+            return true;
+        }
+        backUp(node);
+        return true;
+    }
+
+    /**
+     * Set the f(n) of a node to the lowest f(n) of its children, and so on up to the root while it changes
+     *
+     * @param node a node, out of the leaves
+     */
+    private void backUp(Node node) {
+        while (node != null) {
+            int lowestCost = INFINITE_COST;
+            for (int childCost : node.childCosts) {
+                lowestCost = Math.min(lowestCost, childCost);
+            }
+            if (lowestCost == node.estimatedTotalCost) {
+                return;
+            }
+            node.estimatedTotalCost = lowestCost;
+            if (node.parent != null) {
+                node.parent.childCosts[node.childIndex] = lowestCost;
+            }
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Drop a leaf, keeping its f(n) in its parent, which goes back to the open nodes to generate it again
+     *
+     * @param leaf a node without children in memory that is not the root, already out of the leaves
+     */
+    private void forget(Node leaf) {
+        open.remove(leaf);
+        Node parent = leaf.parent;
+        parent.children[leaf.childIndex] = null;
+        parent.childCosts[leaf.childIndex] = leaf.estimatedTotalCost;
+        parent.childrenInMemory--;
+        nodeCount--;
+        if (leaf.estimatedTotalCost < parent.openCost) {
+            setOpenCost(parent, leaf.estimatedTotalCost);
+        }
+        backUp(parent);
+        if (parent.childrenInMemory == 0 && parent.parent != null) {
+            leaves.add(parent);
+        }
+    }
+
+    private void setOpenCost(Node node, int openCost) {
+        open.remove(node);
+        node.openCost = openCost;
+        open.add(node);
+    }
+
+    /**
+     * Apply the moves from the root to a goal node to a copy of the initial state
+     *
+     * @param rootGameState the initial game state
+     * @param goal          the goal node
+     * @return the goal state, with its steps taken
+     */
+    private static GameState replay(GameState rootGameState, Node goal) {
+        int[] moves = new int[goal.depth];
+        for (Node node = goal; node.parent != null; node = node.parent) {
+            moves[node.depth - 1] = node.emptyCellIndex;
+        }
+        GameState goalState = rootGameState.clone();
+        for (int movedCellIndex : moves) {
+            goalState.moveCandyAt(movedCellIndex);
+        }
+        Bot.computeHeuristicValue(goalState);
+        return goalState;
+    }
+
+    private int estimate(long board) {
+        return patternHeuristic != null ? patternHeuristic.estimate(board) : Heuristic.estimate(board);
+    }
+
+    /**
+     * Estimate a child board, timing one call in SearchMetrics.HEURISTIC_SAMPLE_INTERVAL
+     *
+     * @param board the packed board
+     * @return the heuristic value
+     */
+    private int sampledEstimate(long board) {
+        if (!metrics.sampleHeuristic()) {
+            return estimate(board);
+        }
+        long heuristicStartTime = System.nanoTime();
+        int heuristicValue = estimate(board);
+        metrics.addHeuristicSample(System.nanoTime() - heuristicStartTime);
+        return heuristicValue;
+    }
+
+    /**
+     * A node of the search tree. Its children are indexed like the moves of Config.GAME_RULES.getNeighbourIndexes
+     */
+    private static final class Node {
+        private final Node parent;
+        private final int childIndex; // Index of this node in the children of its parent
+        private final long board;
+        private final int emptyCellIndex;
+        private final int previousEmptyCellIndex; // Moving its candy back would undo the last move
+        private final int depth;
+        private final long id; // Keeps nodes with the same cost and depth apart in the sets
+        private int estimatedTotalCost;
+        private int openCost = INFINITE_COST; // Cost of the best node it can generate, while in the open nodes
+        private Node[] children; // Null until the node is expanded
+        private int[] childCosts; // f(n) of each child, in memory or forgotten
+        private int childrenInMemory;
+
+        private Node(Node parent, int childIndex, long board, int emptyCellIndex, int previousEmptyCellIndex, long id) {
+            this.parent = parent;
+            this.childIndex = childIndex;
+            this.board = board;
+            this.emptyCellIndex = emptyCellIndex;
+            this.previousEmptyCellIndex = previousEmptyCellIndex;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.id = id;
+        }
+    }
+}
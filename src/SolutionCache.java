@@ -0,0 +1,210 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Move sequences of boards already solved, so a repeated board, or a mirror image of one, is answered
+ * by replaying its stored moves instead of searching again
+ *
+ * Boards are keyed by their canonical form under Symmetry, moves are stored as cell indexes of the canonical
+ * board and mapped back through the same symmetry. Each solution is tagged with its producer: OPTIMAL when the
+ * engine knew it optimal, which answers every engine, otherwise the engine and heuristic that found it, which
+ * only answers that engine with that heuristic. The least recently used entries are dropped once the cache is
+ * full. Every method is thread safe
+ */
+public class SolutionCache {
+    public static final int OPTIMAL = 0; // Producer of the solutions no other one can improve on
+
+    // Table identity, version 1 stored move counts in one byte, version 2 had no producers
+    private static final long LAYOUT_VERSION = 3L;
+    private static final Object SHARED_LOCK = new Object();
+    private static SolutionCache shared;
+
+    private final int capacity;
+    private final File file; // Null when the cache is not persisted
+    private final LinkedHashMap<Long, Solution> solutions;
+    private boolean modified; // Whether entries were stored since the last load or save
+
+    /**
+     * The moves of one solution, as cell indexes of the canonical board, with its producer
+     */
+    private static final class Solution {
+        final int producer;
+        final byte[] moves;
+
+        Solution(int producer, byte[] moves) {
+            this.producer = producer;
+            this.moves = moves;
+        }
+    }
+
+    /**
+     * @param capacity the number of boards kept
+     * @param file     the file the cache is loaded from and saved to, null to keep it in memory only
+     */
+    public SolutionCache(final int capacity, File file) {
+        this.capacity = capacity;
+        this.file = file;
+        solutions = new LinkedHashMap<Long, Solution>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Solution> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the cache shared by every solver of this JVM, loading it from the table directory the first time
+     *
+     * @return the shared cache, null when Config.SEARCH.USE_SOLUTION_CACHE is off
+     */
+    public static SolutionCache getShared() {
+        if (!Config.SEARCH.USE_SOLUTION_CACHE) {
+            return null;
+        }
+        synchronized (SHARED_LOCK) {
+            if (shared == null) {
+                File file = Config.SEARCH.PERSIST_SOLUTION_CACHE
+                        ? new File(Config.SEARCH.TABLE_DIRECTORY, Config.SEARCH.SOLUTION_CACHE_FILE) : null;
+                shared = new SolutionCache(Config.SEARCH.SOLUTION_CACHE_CAPACITY, file);
+                if (file != null && file.isFile()) {
+                    try {
+                        shared.load();
+                    } catch (IOException e) {
+                        System.err.println("Ignoring solution cache " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * The producer tag of the solutions an engine does not know to be optimal
+     * Engines are tagged by their position in Config.SEARCH.ENGINE, new engines go at its end to keep saved tags
+     *
+     * @param engine          the search engine
+     * @param patternDatabase whether it searched with the pattern databases
+     * @return the tag, never OPTIMAL
+     */
+    public static int producerOf(Config.SEARCH.ENGINE engine, boolean patternDatabase) {
+        return 1 + 2 * engine.ordinal() + (patternDatabase ? 1 : 0);
+    }
+
+    /**
+     * @param initialState the initial game state
+     * @param producer     the producer tag of the engine asking, see producerOf
+     * @return the goal state reached by replaying the stored moves on a copy of the initial state,
+     * null if the board was never solved optimally nor by that producer
+     */
+    public GameState lookup(GameState initialState, int producer) {
+        long board = initialState.getBoard();
+        int symmetry = Symmetry.canonicalSymmetry(board);
+        Solution solution;
+        synchronized (this) {
+            solution = solutions.get(Symmetry.apply(symmetry, board));
+        }
+        if (solution == null || (solution.producer != OPTIMAL && solution.producer != producer)) {
+            return null;
+        }
+
+        GameState goalState = initialState.clone();
+        for (byte move : solution.moves) {
+            goalState.moveCandyAt(Symmetry.mapCell(symmetry, move));
+        }
+        return goalState;
+    }
+
+    /**
+     * Store a solution, unless the board already has an optimal one and this one is not
+     *
+     * @param initialState the initial game state
+     * @param goalState    a goal state reached from it
+     * @param producer     OPTIMAL if the goal state is known to be optimal, the tag of the engine otherwise
+     */
+    public void store(GameState initialState, GameState goalState, int producer) {
+        long board = initialState.getBoard();
+        int symmetry = Symmetry.canonicalSymmetry(board);
+        int[] steps = goalState.getMovedCellIndexes();
+        byte[] moves = new byte[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            moves[i] = (byte) Symmetry.mapCell(symmetry, steps[i]);
+        }
+        long key = Symmetry.apply(symmetry, board);
+        synchronized (this) {
+            Solution solution = solutions.get(key);
+            if (solution == null || solution.producer != OPTIMAL || producer == OPTIMAL) {
+                solutions.put(key, new Solution(producer, moves));
+                modified = true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of boards kept
+     */
+    public synchronized int size() {
+        return solutions.size();
+    }
+
+    /**
+     * Save the cache to its file if entries were stored since it was loaded, least recently used first so
+     * a reload keeps the eviction order
+     * Entries are a packed board, a producer (int), a move count (int) and one cell index per move
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        ByteBuffer payload;
+        synchronized (this) {
+            if (!modified) {
+                return;
+            }
+            int length = 0;
+            for (Solution solution : solutions.values()) {
+                length += Long.BYTES + 2 * Integer.BYTES + solution.moves.length;
+            }
+            payload = ByteBuffer.allocate(length);
+            for (Map.Entry<Long, Solution> entry : solutions.entrySet()) {
+                Solution solution = entry.getValue();
+                payload.putLong(entry.getKey()).putInt(solution.producer).putInt(solution.moves.length)
+                        .put(solution.moves);
+            }
+            modified = false;
+        }
+        TableFile.write(file, TableFile.KIND_SOLUTION_CACHE, LAYOUT_VERSION, payload.array());
+    }
+
+    /**
+     * Add the entries saved in the cache file
+     *
+     * @throws IOException if the file cannot be read, is corrupted or was saved in another layout
+     */
+    void load() throws IOException {
+        ByteBuffer payload = TableFile.map(file, TableFile.KIND_SOLUTION_CACHE, LAYOUT_VERSION);
+        synchronized (this) {
+            while (payload.hasRemaining()) {
+                if (payload.remaining() < Long.BYTES + 2 * Integer.BYTES) {
+                    throw new IOException("truncated entry");
+                }
+                long board = payload.getLong();
+                int producer = payload.getInt();
+                if (producer < 0) {
+                    throw new IOException("invalid producer " + producer);
+                }
+                int moveCount = payload.getInt();
+                if (moveCount < 0 || moveCount > payload.remaining()) {
+                    throw new IOException("invalid move count " + moveCount);
+                }
+                byte[] moves = new byte[moveCount];
+                payload.get(moves);
+                solutions.put(board, new Solution(producer, moves));
+            }
+        }
+    }
+}
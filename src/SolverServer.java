@@ -0,0 +1,243 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resident solver, used when Driver is started with --serve: a TCP server on the loopback interface that
+ * answers boards with their moves. The JVM start, the tables and the JIT warm-up are paid once for every
+ * puzzle, and the SolutionCache stays shared across requests
+ *
+ * Protocol, one UTF-8 line per request and per response:
+ * a request is the candy letters of a board as in input.txt, QUIT closes the connection, blank lines are ignored.
+ * Responses come back in request order:
+ * OK followed by the cells moved (- if the board is already a goal), the time taken and the engine,
+ * NO_SOLUTION followed by the time taken and the engine, or ERROR followed by why the board is invalid
+ *
+ * Boards of every connection are queued on one shared worker pool, so a client may send a burst of boards
+ * without waiting. Responses are flushed whenever no earlier board of the connection is still being solved
+ */
+public class SolverServer {
+    static final String SERVE_OPTION = "--serve";
+    static final String USAGE = "Usage: java Driver --serve [--port N] [--engine ENGINE] [--threads N]";
+    private static final String QUIT = "QUIT";
+    private static final String NO_MOVE = "-";
+    private static final int BACKLOG = 64;
+    private static final int WINDOW_PER_THREAD = 4; // Boards in flight per connection and worker thread
+    private static final long POLL_MILLIS = 100;
+    private static final Future<BatchSolver.Result> END_OF_REQUESTS = CompletableFuture.completedFuture(null);
+
+    private Config.SEARCH.ENGINE engine = Config.SEARCH.DEFAULT_ENGINE;
+    private int threads = Config.SEARCH.BATCH_THREADS;
+    private int port = Config.SEARCH.SERVER_PORT;
+
+    private final ExecutorService connectionPool = Executors.newCachedThreadPool();
+    private BatchSolver batchSolver;
+
+    /**
+     * Serve until the process is stopped
+     *
+     * @param args the command line arguments after --serve
+     * @return the exit status: 1 if the server cannot listen, 2 for bad arguments
+     */
+    public static int run(String[] args) {
+        SolverServer solverServer = new SolverServer();
+        try {
+            solverServer.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            solverServer.serve();
+            return 0;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--port":
+                    port = parsePositive(value, "port");
+                    break;
+                case "--engine":
+                    try {
+                        engine = Config.SEARCH.ENGINE.valueOf(value.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown search engine " + value);
+                    }
+                    break;
+                case "--threads":
+                    threads = parsePositive(value, "thread count");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+    }
+
+    private static int parsePositive(String value, String name) {
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            number = 0;
+        }
+        if (number < 1) {
+            throw new IllegalArgumentException("Invalid " + name + " " + value);
+        }
+        return number;
+    }
+
+    private void serve() throws IOException {
+        final SolutionCache solutionCache = SolutionCache.getShared();
+        if (solutionCache != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    solutionCache.save();
+                } catch (IOException e) {
+                    System.err.println("Cannot save solution cache: " + e.getMessage());
+                }
+            }));
+        }
+
+        batchSolver = new BatchSolver(engine, threads, Config.SEARCH.BATCH_USE_VIRTUAL_THREADS);
+        try (ServerSocket serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+            System.out.println("Solving with " + engine + " on " + serverSocket.getLocalSocketAddress());
+            while (true) {
+                final Socket socket = serverSocket.accept();
+                connectionPool.execute(() -> handle(socket));
+            }
+        } finally {
+            batchSolver.shutdown();
+            connectionPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Read the boards of one connection and queue them, while another thread writes the responses in order
+     *
+     * @param socket the connection
+     */
+    private void handle(Socket socket) {
+        BlockingQueue<Future<BatchSolver.Result>> pending = new ArrayBlockingQueue<>(threads * WINDOW_PER_THREAD);
+        Future<?> writerTask = null;
+        try (Socket connection = socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            writerTask = connectionPool.submit(() -> {
+                writeResponses(pending, writer);
+                return null;
+            });
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (QUIT.equalsIgnoreCase(line)) {
+                    break;
+                }
+                if (!enqueue(pending, batchSolver.submit(line), writerTask)) {
+                    break;
+                }
+            }
+            enqueue(pending, END_OF_REQUESTS, writerTask);
+            writerTask.get();
+        } catch (IOException | ExecutionException e) {
+            // The client went away, nothing left to answer
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (writerTask != null) {
+                writerTask.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Wait for room in the pending queue, which holds back a client sending faster than the workers solve
+     *
+     * @return false if the writer stopped, because the client closed the connection
+     */
+    private static boolean enqueue(BlockingQueue<Future<BatchSolver.Result>> pending,
+                                   Future<BatchSolver.Result> future, Future<?> writerTask)
+            throws InterruptedException {
+        while (!pending.offer(future, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (writerTask.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeResponses(BlockingQueue<Future<BatchSolver.Result>> pending, BufferedWriter writer)
+            throws IOException, InterruptedException {
+        while (true) {
+            Future<BatchSolver.Result> future = pending.take();
+            if (future == END_OF_REQUESTS) {
+                writer.flush();
+                return;
+            }
+            String response;
+            try {
+                response = responseOf(BatchSolver.await(future));
+            } catch (InvalidBoardException e) {
+                response = "ERROR " + e.getMessage();
+            }
+            writer.write(response);
+            writer.newLine();
+            if (pending.isEmpty()) {
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * @param result the result of one board
+     * @return its response line
+     */
+    static String responseOf(BatchSolver.Result result) {
+        String timeAndEngine = result.getTimeTaken() + "ms " + result.getSolvedBy();
+        GameState goalState = result.getGoalState();
+        if (goalState == null) {
+            return "NO_SOLUTION " + timeAndEngine;
+        }
+
+        StringBuilder stringBuilder = new StringBuilder("OK ");
+        int[] movedCellIndexes = goalState.getMovedCellIndexes();
+        if (movedCellIndexes.length == 0) {
+            stringBuilder.append(NO_MOVE);
+        }
+        for (int movedCellIndex : movedCellIndexes) {
+            stringBuilder.append(Config.GAME_RULES.getCellCharByIndex(movedCellIndex));
+        }
+        return stringBuilder.append(' ').append(timeAndEngine).toString();
+    }
+}
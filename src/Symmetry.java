@@ -0,0 +1,103 @@
+/**
+ * Symmetries of the board that keep both the goal test and the moves: mirroring the board left to right,
+ * swapping the top and bottom rows, and doing both. Every symmetry is its own inverse, so a move sequence
+ * solving a transformed board maps back to one solving the original board through the same symmetry
+ */
+public final class Symmetry {
+    public static final int IDENTITY = 0;
+    public static final int MIRROR = 1;
+    public static final int ROW_SWAP = 2;
+    public static final int MIRROR_AND_ROW_SWAP = MIRROR | ROW_SWAP;
+    public static final int COUNT = 4;
+
+    private static final int TOP_ROW_SHIFT = (Board.ROW_COUNT - 1) * Board.ROW_LENGTH * Board.BITS_PER_CELL;
+    private static final int MIDDLE_ROW_SHIFT = Board.ROW_LENGTH * Board.BITS_PER_CELL;
+    private static final int[] MIRRORED_ROWS = new int[(int) Board.ROW_MASK + 1]; // Every packed row reversed
+    private static final int[][] CELL_MAPS = new int[COUNT][Board.CELL_COUNT];
+
+    static {
+        for (int row = 0; row < MIRRORED_ROWS.length; row++) {
+            int mirroredRow = 0;
+            for (int i = 0; i < Board.ROW_LENGTH; i++) {
+                int code = (row >>> (i * Board.BITS_PER_CELL)) & (int) Board.CELL_MASK;
+                mirroredRow |= code << ((Board.ROW_LENGTH - 1 - i) * Board.BITS_PER_CELL);
+            }
+            MIRRORED_ROWS[row] = mirroredRow;
+        }
+
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int cell = 0; cell < Board.CELL_COUNT; cell++) {
+                int row = cell / Board.ROW_LENGTH;
+                int column = cell % Board.ROW_LENGTH;
+                if ((symmetry & ROW_SWAP) != 0) {
+                    row = Board.ROW_COUNT - 1 - row;
+                }
+                if ((symmetry & MIRROR) != 0) {
+                    column = Board.ROW_LENGTH - 1 - column;
+                }
+                CELL_MAPS[symmetry][cell] = row * Board.ROW_LENGTH + column;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    /**
+     * @param symmetry the symmetry
+     * @param board    the packed board
+     * @return the transformed packed board
+     */
+    public static long apply(int symmetry, long board) {
+        long topRow = (board >>> TOP_ROW_SHIFT) & Board.ROW_MASK;
+        long middleRow = (board >>> MIDDLE_ROW_SHIFT) & Board.ROW_MASK;
+        long bottomRow = board & Board.ROW_MASK;
+        if ((symmetry & MIRROR) != 0) {
+            topRow = MIRRORED_ROWS[(int) topRow];
+            middleRow = MIRRORED_ROWS[(int) middleRow];
+            bottomRow = MIRRORED_ROWS[(int) bottomRow];
+        }
+        if ((symmetry & ROW_SWAP) != 0) {
+            long swappedRow = topRow;
+            topRow = bottomRow;
+            bottomRow = swappedRow;
+        }
+        return (topRow << TOP_ROW_SHIFT) | (middleRow << MIDDLE_ROW_SHIFT) | bottomRow;
+    }
+
+    /**
+     * @param symmetry  the symmetry
+     * @param cellIndex the cell index
+     * @return the index the cell moves to under the symmetry
+     */
+    public static int mapCell(int symmetry, int cellIndex) {
+        return CELL_MAPS[symmetry][cellIndex];
+    }
+
+    /**
+     * Get the symmetry turning a board into its canonical form, the smallest encoding among its images
+     *
+     * @param board the packed board
+     * @return the symmetry, IDENTITY when several images tie with the board itself
+     */
+    public static int canonicalSymmetry(long board) {
+        int bestSymmetry = IDENTITY;
+        long bestBoard = board;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long image = apply(symmetry, board);
+            if (image < bestBoard) {
+                bestBoard = image;
+                bestSymmetry = symmetry;
+            }
+        }
+        return bestSymmetry;
+    }
+
+    /**
+     * @param board the packed board
+     * @return the same key for a board and all its images
+     */
+    public static long canonical(long board) {
+        return apply(canonicalSymmetry(board), board);
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk format of the precomputed tables (pattern databases, distance tables...)
+ * A fixed header followed by the raw table bytes. Files are memory-mapped read only, so every solver
+ * process on a host shares one copy through the page cache, and a table is ready as soon as it is mapped
+ *
+ * Header, big endian:
+ * magic (int), format version (int), table kind (int), reserved (int),
+ * table identity chosen by the table kind (long), payload length (long), CRC32 of the payload (long)
+ */
+public final class TableFile {
+    public static final int FORMAT_VERSION = 1;
+    public static final int KIND_PATTERN_DATABASE = 1;
+    public static final int KIND_SOLUTION_CACHE = 2;
+    public static final int KIND_DISTANCE_TABLE = 3;
+    public static final int KIND_SEARCH_CHECKPOINT = 4;
+
+    private static final int MAGIC = 0x43435442; // "CCTB"
+    private static final int HEADER_LENGTH = 40;
+
+    private TableFile() {
+    }
+
+    /**
+     * Map the payload of a table file, checking that it is the expected table and that it is intact
+     *
+     * @param file           the table file
+     * @param kind           the expected table kind
+     * @param identity       the expected table identity
+     * @param expectedLength the expected payload length in bytes
+     * @return the payload, read only
+     *
+     * @throws IOException if the file cannot be read, or was written by another version, for another table,
+     *                     or got corrupted
+     */
+    public static ByteBuffer map(File file, int kind, long identity, long expectedLength) throws IOException {
+        ByteBuffer payload = map(file, kind, identity);
+        if (payload.capacity() != expectedLength) {
+            throw new IOException("stale table of " + payload.capacity() + " bytes");
+        }
+        return payload;
+    }
+
+    /**
+     * Map the payload of a table file whose length is not known in advance
+     *
+     * @param file     the table file
+     * @param kind     the expected table kind
+     * @param identity the expected table identity
+     * @return the payload, read only
+     *
+     * @throws IOException if the file cannot be read, or was written by another version, for another table,
+     *                     or got corrupted
+     */
+    public static ByteBuffer map(File file, int kind, long identity) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is complete
+            }
+            if (header.hasRemaining()) {
+                throw new IOException("truncated header");
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a table file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("format version " + version + " instead of " + FORMAT_VERSION);
+            }
+            if (header.getInt() != kind) {
+                throw new IOException("not a table of kind " + kind);
+            }
+            header.getInt();
+            if (header.getLong() != identity) {
+                throw new IOException("stale table");
+            }
+            long length = header.getLong();
+            long checksum = header.getLong();
+            if (length < 0 || length > Integer.MAX_VALUE || channel.size() != HEADER_LENGTH + length) {
+                throw new IOException("unexpected size " + channel.size());
+            }
+
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, length);
+            if (checksumOf(payload) != checksum) {
+                throw new IOException("checksum mismatch");
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Write a table file, replacing any previous one in a single rename
+     * so processes mapping the file concurrently never see a partial table
+     *
+     * @param file     the table file
+     * @param kind     the table kind
+     * @param identity the table identity
+     * @param payload  the table bytes
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(File file, int kind, long identity, byte[] payload) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(kind).putInt(0)
+                .putLong(identity).putLong(payload.length).putLong(checksumOf(ByteBuffer.wrap(payload)));
+        header.flip();
+
+        File temporaryFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(temporaryFile, "rw");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                ByteBuffer body = ByteBuffer.wrap(payload);
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{header, body});
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Identity of a table built for one multiset of candies
+     *
+     * @param candiesCount the number of cells holding each candy code, at most 15 each
+     * @return 4 bits per candy code
+     */
+    public static long identityOf(int[] candiesCount) {
+        long identity = 0L;
+        for (int count : candiesCount) {
+            identity = (identity << 4) | count;
+        }
+        return identity;
+    }
+
+    private static long checksumOf(ByteBuffer payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload.duplicate());
+        return crc32.getValue();
+    }
+}
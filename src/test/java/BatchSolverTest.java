@@ -0,0 +1,61 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class BatchSolverTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+
+    @Test
+    public void answersRepeatedBoardsFromTheCache() {
+        SolutionCache solutionCache = new SolutionCache(16, null);
+        Config.SEARCH.ENGINE engine = Config.SEARCH.DEFAULT_ENGINE;
+
+        BatchSolver.Result result = BatchSolver.solve(BOARD, engine, solutionCache);
+        assertEquals(engine.toString(), result.getSolvedBy());
+        BatchSolver.Result repeatedResult = BatchSolver.solve(BOARD, engine, solutionCache);
+        assertEquals(BatchSolver.SOLVED_BY_CACHE, repeatedResult.getSolvedBy());
+        assertArrayEquals(result.getGoalState().getMovedCellIndexes(),
+                repeatedResult.getGoalState().getMovedCellIndexes());
+        assertEquals(1, solutionCache.size());
+    }
+
+    @Test
+    public void answersEveryEngineWithOptimalSolutions() {
+        SolutionCache solutionCache = new SolutionCache(16, null);
+
+        BatchSolver.Result optimalResult = BatchSolver.solve(BOARD, Config.SEARCH.ENGINE.BIDIRECTIONAL, solutionCache);
+        for (Config.SEARCH.ENGINE engine : Config.SEARCH.ENGINE.values()) {
+            BatchSolver.Result cachedResult = BatchSolver.solve(BOARD, engine, solutionCache);
+            assertEquals(BatchSolver.SOLVED_BY_CACHE, cachedResult.getSolvedBy());
+            assertEquals(optimalResult.getGoalState().getActualCostToReach(),
+                    cachedResult.getGoalState().getActualCostToReach());
+        }
+    }
+
+    /**
+     * The column estimate overestimates, so an anytime search with it proves no bound: a label without one
+     * must be an optimal answer, and a bound must hold against the optimal cost
+     */
+    @Test
+    public void anytimeLabelClaimsNoUnprovenBound() throws IOException {
+        for (String inputString : TestBoards.readLevel("input/level2.txt")) {
+            AnytimeBot bot = new AnytimeBot();
+            int cost = bot.play(new GameState(inputString)).getActualCostToReach();
+            double suboptimalityBound = bot.getSuboptimalityBound();
+            String solvedBy = BatchSolver.describe(Config.SEARCH.ENGINE.ANYTIME, suboptimalityBound);
+            int optimalCost = TestBoards.optimalCost(inputString);
+
+            if (!Config.SEARCH.USE_PATTERN_DATABASE) {
+                assertEquals(inputString, "ANYTIME (unbounded)", solvedBy);
+            } else if (solvedBy.equals("ANYTIME")) {
+                assertEquals(inputString, optimalCost, cost);
+            } else {
+                assertTrue(inputString, cost <= suboptimalityBound * optimalCost);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class BoardParserTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+
+    @Test
+    public void acceptsAnyWhitespaceBetweenCandies() {
+        long board = BoardParser.parse(BOARD);
+        assertEquals(board, BoardParser.parse("rrbrrbbrbbwwreb"));
+        assertEquals(board, BoardParser.parse("  r\tr  b r\u000Br b b r b b w w r e b \r"));
+        assertEquals(board, BoardParser.parse(new StringBuilder(BOARD)));
+    }
+
+    @Test
+    public void reportsTheInvalidCharacterAndItsPosition() {
+        assertInvalid("r r b r r b b r b b w x r e b", "Invalid candy letter 'x' at position 22");
+        assertInvalid("r r b r r b b r b b w w r e B", "Invalid candy letter 'B' at position 28");
+    }
+
+    @Test
+    public void rejectsNonAsciiCharacters() {
+        assertInvalid("r r b r r b b r b b w w r e \u00E9", "Invalid candy letter '\u00E9' at position 28");
+        assertInvalid("r r b r r b b r b b w w r e\u00A0b", "Invalid candy letter '\u00A0' at position 27");
+    }
+
+    @Test
+    public void rejectsAnyOtherNumberOfCandies() {
+        assertInvalid("r r b r r b b r b b w w r e", "Expected 15 candies, found 14");
+        assertInvalid("r r b r r b b r b b w w r e b b", "Expected 15 candies, found more");
+        assertInvalid("", "Expected 15 candies, found 0");
+    }
+
+    @Test
+    public void rejectsAnyOtherNumberOfEmptyCells() {
+        assertInvalid("r r b r r b b r b b w w r b b", "Expected one empty cell, found 0");
+        assertInvalid("r r b r r b b r b b w w e e b", "Expected one empty cell, found 2");
+    }
+
+    private static void assertInvalid(String line, String message) {
+        try {
+            BoardParser.parse(line);
+            fail("Parsed " + line);
+        } catch (InvalidBoardException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BoardRankerTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+
+    @Test
+    public void rankAndUnrankAreInverse() {
+        int[] candiesCount = new GameState("b b b b b b b r r r r r r r e").getCandiesCount();
+        BoardRanker ranker = new BoardRanker(candiesCount);
+
+        for (long rank = 0; rank < ranker.size(); rank++) {
+            long board = ranker.unrank(rank);
+            assertTrue(Arrays.equals(candiesCount, new GameState(board).getCandiesCount()));
+            assertEquals(rank, ranker.rank(board));
+        }
+    }
+
+    @Test
+    public void sizeCountsEveryArrangement() {
+        // 15! / (1! 6! 6! 2!) arrangements of one empty cell, six b, six r and two w
+        assertEquals(1_261_260L, new BoardRanker(new GameState(BOARD).getCandiesCount()).size());
+    }
+
+    @Test
+    public void unrankRebuildsTheRankedBoard() {
+        long board = new GameState(BOARD).getBoard();
+        BoardRanker ranker = new BoardRanker(new GameState(BOARD).getCandiesCount());
+
+        assertEquals(board, ranker.unrank(ranker.rank(board)));
+    }
+
+    @Test
+    public void codesOfOneClassShareRanks() {
+        long board = new GameState(BOARD).getBoard();
+        int[] candiesCount = new GameState(BOARD).getCandiesCount();
+        int[] classOfCode = {0, 1, 7, 7, 7, 7, 7, 7}; // Keep the empty cell and b, every other candy is a wildcard
+        BoardRanker ranker = new BoardRanker(candiesCount, classOfCode);
+
+        // Swap an r and a w: only the wildcard cells change
+        long swapped = Board.set(Board.set(board, 0, Board.get(board, 10)), 10, Board.get(board, 0));
+        assertEquals(ranker.rank(board), ranker.rank(swapped));
+        // Swap an r and a b: the b cells change
+        long moved = Board.set(Board.set(board, 0, Board.get(board, 2)), 2, Board.get(board, 0));
+        assertFalse(ranker.rank(board) == ranker.rank(moved));
+
+        for (long rank = 0; rank < ranker.size(); rank++) {
+            assertEquals(rank, ranker.rank(ranker.unrank(rank)));
+        }
+    }
+}
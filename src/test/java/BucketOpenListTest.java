@@ -0,0 +1,127 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BucketOpenListTest {
+    private static final long BOARD = new GameState("r r b r r b b r b b w w r e b").getBoard();
+
+    @Test
+    public void pollsInIncreasingF() {
+        for (Config.SEARCH.TIE_BREAK tieBreak : Config.SEARCH.TIE_BREAK.values()) {
+            BucketOpenList openList = new BucketOpenList(tieBreak);
+            Random random = new Random(6721);
+            for (int i = 0; i < 1000; i++) {
+                openList.addNewItem(state(i, random.nextInt(40), random.nextInt(40)));
+            }
+
+            int previousCost = 0;
+            int polled = 0;
+            for (GameState gameState = openList.pollFirstItem(); gameState != null;
+                 gameState = openList.pollFirstItem()) {
+                assertTrue(tieBreak + " out of order", gameState.getEstimatedTotalCost() >= previousCost);
+                previousCost = gameState.getEstimatedTotalCost();
+                polled++;
+            }
+            assertEquals(1000, polled);
+            assertTrue(openList.isEmpty());
+            assertEquals(1000, openList.getPeakSize());
+        }
+    }
+
+    @Test
+    public void fifoPollsEqualCostsInInsertionOrder() {
+        BucketOpenList openList = new BucketOpenList(Config.SEARCH.TIE_BREAK.FIFO);
+        List<GameState> added = addEqualCosts(openList);
+
+        for (GameState gameState : added) {
+            assertSame(gameState, openList.pollFirstItem());
+        }
+    }
+
+    @Test
+    public void lifoPollsEqualCostsInReverseInsertionOrder() {
+        BucketOpenList openList = new BucketOpenList(Config.SEARCH.TIE_BREAK.LIFO);
+        List<GameState> added = addEqualCosts(openList);
+
+        for (int i = added.size() - 1; i >= 0; i--) {
+            assertSame(added.get(i), openList.pollFirstItem());
+        }
+    }
+
+    @Test
+    public void higherGPollsDeepestFirst() {
+        BucketOpenList openList = new BucketOpenList(Config.SEARCH.TIE_BREAK.HIGHER_G);
+        openList.addNewItem(state(1, 2, 8));
+        openList.addNewItem(state(2, 9, 1));
+        openList.addNewItem(state(3, 5, 5));
+        openList.addNewItem(state(4, 1, 3));
+
+        assertEquals(4, openList.pollFirstItem().getBoard());
+        assertEquals(2, openList.pollFirstItem().getBoard());
+        assertEquals(3, openList.pollFirstItem().getBoard());
+        assertEquals(1, openList.pollFirstItem().getBoard());
+        assertNull(openList.pollFirstItem());
+    }
+
+    @Test
+    public void keepsTheCheapestGameStatePerBoard() {
+        BucketOpenList openList = new BucketOpenList(Config.SEARCH.TIE_BREAK.HIGHER_G);
+        GameState expensive = state(BOARD, 6, 4);
+        GameState cheap = state(BOARD, 3, 4);
+
+        assertTrue(openList.addNewItem(expensive));
+        assertTrue(openList.addNewItem(cheap));
+        assertFalse(openList.addNewItem(state(BOARD, 8, 4)));
+
+        assertEquals(1, openList.getSize());
+        assertEquals(2, openList.getDuplicateCount());
+        assertSame(cheap, openList.pollFirstItem());
+        assertNull(openList.pollFirstItem());
+    }
+
+    @Test
+    public void canonicalKeysMergeSymmetricBoards() {
+        BucketOpenList openList = new BucketOpenList(Config.SEARCH.TIE_BREAK.FIFO, true);
+        openList.addNewItem(state(BOARD, 4, 4));
+        openList.addNewItem(state(Symmetry.apply(Symmetry.MIRROR, BOARD), 2, 4));
+
+        assertEquals(1, openList.getSize());
+        assertEquals(6, openList.pollFirstItem().getEstimatedTotalCost());
+    }
+
+    @Test
+    public void growsForLargeCosts() {
+        for (Config.SEARCH.TIE_BREAK tieBreak : Config.SEARCH.TIE_BREAK.values()) {
+            BucketOpenList openList = new BucketOpenList(tieBreak);
+            openList.addNewItem(state(1, 3000, 20));
+            openList.addNewItem(state(2, 10, 5));
+            openList.addNewItem(state(3, 1500, 1500));
+
+            assertEquals(2, openList.pollFirstItem().getBoard());
+            assertEquals(3, openList.pollFirstItem().getBoard());
+            assertEquals(1, openList.pollFirstItem().getBoard());
+        }
+    }
+
+    private static List<GameState> addEqualCosts(BucketOpenList openList) {
+        List<GameState> added = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            GameState gameState = state(i + 1, 5, 5);
+            openList.addNewItem(gameState);
+            added.add(gameState);
+        }
+        return added;
+    }
+
+    private static GameState state(long board, int actualCost, int heuristicValue) {
+        return GameState.restore(board, new int[actualCost], heuristicValue);
+    }
+}
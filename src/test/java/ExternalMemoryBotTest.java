@@ -0,0 +1,45 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExternalMemoryBotTest {
+    private static final int SORT_BUFFER_ENTRIES = 64; // Small enough to merge several runs per layer
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * With the pattern databases, the layered search must find the optimal number of moves, found by the exact
+     * bidirectional breadth first search, and leave no layer file behind
+     */
+    @Test
+    public void findsOptimalSolutions() throws IOException {
+        for (String level : TestBoards.LEVELS) {
+            for (String inputString : TestBoards.readLevel(level)) {
+                ExternalMemoryBot bot = new ExternalMemoryBot(folder.getRoot(), SORT_BUFFER_ENTRIES, true);
+                GameState goalState = bot.play(new GameState(inputString));
+
+                assertTrue(inputString, goalState.isGoalState());
+                assertEquals(inputString, TestBoards.optimalCost(inputString), goalState.getActualCostToReach());
+                assertTrue(inputString, bot.isOptimal());
+            }
+        }
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void solvesWithTheColumnEstimate() throws IOException {
+        for (String inputString : TestBoards.readLevel("input/level1.txt")) {
+            GameState goalState = new ExternalMemoryBot(folder.getRoot(), SORT_BUFFER_ENTRIES, false)
+                    .play(new GameState(inputString));
+
+            assertTrue(inputString, goalState.isGoalState());
+            assertTrue(inputString, goalState.getActualCostToReach() >= TestBoards.optimalCost(inputString));
+        }
+    }
+}
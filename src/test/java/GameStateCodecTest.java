@@ -0,0 +1,78 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class GameStateCodecTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+
+    @Test
+    public void roundTripKeepsBoardPathAndCosts() {
+        Random random = new Random(6721);
+        GameState gameState = new GameState(BOARD);
+        Bot.computeHeuristicValue(gameState);
+        // Odd and even path lengths, the last move of an odd path has a byte of its own
+        for (int step = 0; step <= 41; step++) {
+            assertSameState(gameState, GameStateCodec.decode(GameStateCodec.encode(gameState)));
+            assertEquals((gameState.getActualCostToReach() + 1) / 2 + 12, GameStateCodec.encode(gameState).length);
+
+            int[] moves = Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex());
+            GameState childState = gameState.clone();
+            childState.moveCandyAt(moves[random.nextInt(moves.length)]);
+            Bot.computeHeuristicValue(childState);
+            gameState = childState;
+        }
+    }
+
+    @Test
+    public void readsConsecutiveStatesFromOneBuffer() {
+        GameState first = new GameState(BOARD);
+        first.setHeuristicValue(7);
+        GameState second = first.clone();
+        second.moveCandyAt(Config.GAME_RULES.getNeighbourIndexes(second.getEmptyCellIndex())[0]);
+        second.setHeuristicValue(5);
+
+        ByteBuffer buffer = ByteBuffer.allocate(GameStateCodec.encodedLength(first)
+                + GameStateCodec.encodedLength(second));
+        GameStateCodec.write(buffer, first);
+        GameStateCodec.write(buffer, second);
+        buffer.flip();
+
+        assertSameState(first, GameStateCodec.read(buffer));
+        assertSameState(second, GameStateCodec.read(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void javaSerializationGoesThroughTheCodec() throws IOException, ClassNotFoundException {
+        GameState gameState = new GameState(BOARD);
+        gameState.moveCandyAt(Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex())[1]);
+        Bot.computeHeuristicValue(gameState);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(gameState);
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSameState(gameState, (GameState) inputStream.readObject());
+        }
+        assertSameState(gameState, GameState.deepClone(gameState));
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.getBoard(), actual.getBoard());
+        assertEquals(expected.getEmptyCellIndex(), actual.getEmptyCellIndex());
+        assertEquals(expected.getActualCostToReach(), actual.getActualCostToReach());
+        assertEquals(expected.getHeuristicValue(), actual.getHeuristicValue());
+        assertArrayEquals(expected.getMovedCellIndexes(), actual.getMovedCellIndexes());
+        assertArrayEquals(expected.getCandiesCount(), actual.getCandiesCount());
+    }
+}
@@ -0,0 +1,41 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeuristicTest {
+    private static final int WALKS_PER_BOARD = 20;
+    private static final int WALK_LENGTH = 200;
+
+    /**
+     * Random walks from every board of the levels, the incremental update must match a full evaluation
+     * after every move
+     */
+    @Test
+    public void incrementalUpdateMatchesFullEstimate() throws IOException {
+        Random random = new Random(6721);
+        for (String level : TestBoards.LEVELS) {
+            for (String inputString : TestBoards.readLevel(level)) {
+                for (int walk = 0; walk < WALKS_PER_BOARD; walk++) {
+                    randomWalk(new GameState(inputString), random);
+                }
+            }
+        }
+    }
+
+    private static void randomWalk(GameState gameState, Random random) {
+        Bot.computeHeuristicValue(gameState);
+        for (int step = 0; step < WALK_LENGTH; step++) {
+            int move = TestBoards.randomMove(gameState, random);
+            GameState childState = gameState.clone();
+            childState.moveCandyAt(move);
+
+            int hValue = Bot.updateHeuristicValue(gameState, childState, move);
+            assertEquals("After moving " + move + " on " + gameState, Heuristic.estimate(childState.getBoard()), hValue);
+            assertEquals(hValue, childState.getHeuristicValue());
+            gameState = childState;
+        }
+    }
+}
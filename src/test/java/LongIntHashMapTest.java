@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+    private static final int ABSENT = -1;
+
+    @Test
+    public void putGetAndReplace() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(0L, 1);
+        map.put(Board.BOARD_MASK, 2);
+        map.put(0L, 3);
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get(0L, ABSENT));
+        assertEquals(2, map.get(Board.BOARD_MASK, ABSENT));
+        assertEquals(ABSENT, map.get(42L, ABSENT));
+        assertFalse(map.containsKey(42L));
+    }
+
+    /**
+     * Removing the head of a probe chain must shift the rest of the chain back, including the part that
+     * wrapped around the end of the table
+     */
+    @Test
+    public void removeKeepsCollidingChainReachable() {
+        LongIntHashMap map = new LongIntHashMap(8);
+        int capacity = LongIntHashMap.tableSizeFor(8);
+        List<Long> chain = keysWithHome(capacity - 1, capacity, 4);
+        for (int i = 0; i < chain.size(); i++) {
+            map.put(chain.get(i), i);
+        }
+
+        assertTrue(map.remove(chain.get(0)));
+        assertFalse(map.remove(chain.get(0)));
+        assertFalse(map.containsKey(chain.get(0)));
+        for (int i = 1; i < chain.size(); i++) {
+            assertEquals(i, map.get(chain.get(i), ABSENT));
+        }
+
+        assertTrue(map.remove(chain.get(2)));
+        assertEquals(1, map.get(chain.get(1), ABSENT));
+        assertEquals(3, map.get(chain.get(3), ABSENT));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        Random random = new Random(6721);
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(4096);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 4096; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? ABSENT : value, map.get(key, ABSENT));
+        }
+    }
+
+    @Test
+    public void clearEmptiesTheMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 0; key < 5000; key++) {
+            map.put(key, (int) key);
+        }
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(1234L));
+    }
+
+    private static List<Long> keysWithHome(int home, int capacity, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 0; keys.size() < count; key++) {
+            if ((LongIntHashMap.hash(key) & (capacity - 1)) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class OracleBotTest {
+    /**
+     * Boards whose candies fit the distance tables are solved from them in the optimal number of moves, found
+     * by the exact bidirectional breadth first search; the others fall back to A*
+     */
+    @Test
+    public void walksShortestSolutionsDownTheTable() throws IOException {
+        int tableLevelCount = 0;
+        for (String level : TestBoards.LEVELS) {
+            boolean hasTable = false;
+            for (String inputString : TestBoards.readLevel(level)) {
+                GameState rootGameState = new GameState(inputString);
+                hasTable = DistanceOracle.forCandiesCount(rootGameState.getCandiesCount()) != null;
+                OracleBot bot = new OracleBot();
+                GameState goalState = bot.play(rootGameState);
+
+                assertTrue(inputString, goalState.isGoalState());
+                if (hasTable) {
+                    assertTrue(inputString, bot.isOptimal());
+                    assertEquals(inputString, TestBoards.optimalCost(inputString), goalState.getActualCostToReach());
+                    assertEquals(goalState.getActualCostToReach(), bot.getMetrics().getExpandedCount());
+                }
+            }
+            if (hasTable) {
+                tableLevelCount++;
+            }
+        }
+        assertTrue("No level fits the distance tables", tableLevelCount > 0);
+    }
+
+    @Test
+    public void needsNoMoveOnAGoalBoard() throws IOException {
+        String inputString = TestBoards.readLevel("input/level1.txt").get(0);
+        GameState goalState = new OracleBot().play(new GameState(inputString));
+        GameState solvedState = new OracleBot().play(new GameState(goalState.getBoard()));
+
+        assertEquals(0, solvedState.getActualCostToReach());
+        assertEquals(0, solvedState.getMovedCellIndexes().length);
+    }
+}
@@ -0,0 +1,43 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class ParallelBotTest {
+    private static final int[] WORKER_COUNTS = {1, 2, 3, 8};
+
+    /**
+     * With the pattern databases, every worker count must find the optimal number of moves, found by the exact
+     * bidirectional breadth first search, whatever order the workers finish in
+     */
+    @Test
+    public void findsOptimalSolutionsWithAnyWorkerCount() throws IOException {
+        for (String level : TestBoards.LEVELS) {
+            for (String inputString : TestBoards.readLevel(level)) {
+                int optimalCost = TestBoards.optimalCost(inputString);
+                for (int workerCount : WORKER_COUNTS) {
+                    ParallelBot bot = new ParallelBot(workerCount, true);
+                    GameState goalState = bot.play(new GameState(inputString));
+                    String message = workerCount + " workers on " + inputString;
+
+                    assertTrue(message, goalState.isGoalState());
+                    assertEquals(message, optimalCost, goalState.getActualCostToReach());
+                    assertTrue(message, bot.isOptimal());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void solvesWithTheColumnEstimate() throws IOException {
+        for (String inputString : TestBoards.readLevel("input/level1.txt")) {
+            ParallelBot bot = new ParallelBot(3, false);
+            GameState goalState = bot.play(new GameState(inputString));
+
+            assertTrue(inputString, goalState.isGoalState());
+            assertTrue(inputString, goalState.getActualCostToReach() >= TestBoards.optimalCost(inputString));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PatternHeuristicTest {
+    /**
+     * The sum of the pattern databases never exceeds the optimal number of moves, found by the exact
+     * bidirectional breadth first search
+     */
+    @Test
+    public void patternDatabasesNeverOverestimate() throws IOException {
+        for (String level : TestBoards.LEVELS) {
+            List<PatternDatabase> databases = null;
+            for (String inputString : TestBoards.readLevel(level)) {
+                GameState rootGameState = new GameState(inputString);
+                if (databases == null) {
+                    databases = TestBoards.buildDatabases(rootGameState.getCandiesCount());
+                }
+
+                int patternValue = 0;
+                for (PatternDatabase database : databases) {
+                    patternValue += database.lookup(rootGameState.getBoard());
+                }
+                int optimalCost = TestBoards.optimalCost(inputString);
+                assertTrue(patternValue + " > " + optimalCost + " for " + inputString, patternValue <= optimalCost);
+            }
+        }
+    }
+}
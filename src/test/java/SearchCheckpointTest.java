@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SearchCheckpointTest {
+    private static final long ROOT_BOARD = new GameState("r r b r r b b r b b w w r e b").getBoard();
+
+    @After
+    public void deleteFiles() {
+        new File(Config.SEARCH.CHECKPOINT_DIRECTORY, String.format("search-%012x.ckpt", ROOT_BOARD)).delete();
+    }
+
+    @Test
+    public void restoresWhatWasSaved() throws IOException {
+        OpenList openList = new OpenList();
+        LongHashSet closedList = new LongHashSet();
+        GameState rootGameState = new GameState(ROOT_BOARD);
+        Bot.computeHeuristicValue(rootGameState);
+        closedList.add(ROOT_BOARD);
+        for (int move : Config.GAME_RULES.getNeighbourIndexes(rootGameState.getEmptyCellIndex())) {
+            GameState childState = rootGameState.clone();
+            childState.moveCandyAt(move);
+            Bot.computeHeuristicValue(childState);
+            openList.addNewItem(childState);
+        }
+
+        assertFalse(SearchCheckpoint.exists(ROOT_BOARD));
+        try (SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, false, false)) {
+            assertFalse(checkpoint.restore(new OpenList(), new LongHashSet()));
+            checkpoint.save(openList, closedList);
+        }
+        assertTrue(SearchCheckpoint.exists(ROOT_BOARD));
+
+        OpenList restoredOpenList = new OpenList();
+        LongHashSet restoredClosedList = new LongHashSet();
+        try (SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, false, false)) {
+            assertTrue(checkpoint.restore(restoredOpenList, restoredClosedList));
+            checkpoint.delete();
+            assertFalse(checkpoint.getFile().exists());
+        }
+        assertEquals(1, restoredClosedList.size());
+        assertTrue(restoredClosedList.contains(ROOT_BOARD));
+        assertEquals(openList.getSize(), restoredOpenList.getSize());
+        while (!openList.isEmpty()) {
+            GameState expected = openList.pollFirstItem();
+            GameState actual = restoredOpenList.pollFirstItem();
+            assertEquals(expected.getBoard(), actual.getBoard());
+            assertEquals(expected.getEstimatedTotalCost(), actual.getEstimatedTotalCost());
+        }
+    }
+
+    @Test
+    public void rejectsCheckpointsOfOtherSettings() throws IOException {
+        try (SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, true, false)) {
+            checkpoint.save(new OpenList(), new LongHashSet());
+        }
+
+        try (SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, true, true)) {
+            checkpoint.restore(new OpenList(), new LongHashSet());
+            fail("Resumed a checkpoint saved without the pattern databases");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("other settings"));
+        }
+    }
+
+    @Test
+    public void oneSearchPerBoardHoldsTheCheckpoint() throws IOException {
+        SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, false, false);
+        assertNotNull(checkpoint);
+        assertNull(SearchCheckpoint.open(ROOT_BOARD, false, false));
+        checkpoint.close();
+
+        SearchCheckpoint nextCheckpoint = SearchCheckpoint.open(ROOT_BOARD, false, false);
+        assertNotNull(nextCheckpoint);
+        nextCheckpoint.close();
+    }
+
+    @Test
+    public void boardsShareOneLockFile() throws IOException {
+        long otherBoard = new GameState("w r r w b b e b b r r r b b r").getBoard();
+        try (SearchCheckpoint checkpoint = SearchCheckpoint.open(ROOT_BOARD, false, false);
+             SearchCheckpoint otherCheckpoint = SearchCheckpoint.open(otherBoard, false, false)) {
+            assertNotNull(checkpoint);
+            assertNotNull(otherCheckpoint);
+        }
+
+        File[] lockFiles = new File(Config.SEARCH.CHECKPOINT_DIRECTORY).listFiles((dir, name) -> name.endsWith(".lock"));
+        assertNotNull(lockFiles);
+        assertEquals(1, lockFiles.length);
+    }
+}
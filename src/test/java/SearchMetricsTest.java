@@ -0,0 +1,38 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SearchMetricsTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+
+    @Test
+    public void everyEngineFillsItsMetrics() {
+        for (Config.SEARCH.ENGINE engine : Config.SEARCH.ENGINE.values()) {
+            SearchEngine bot = SearchEngine.create(engine);
+            GameState goalState = bot.play(new GameState(BOARD));
+            SearchMetrics metrics = bot.getMetrics();
+
+            assertTrue(engine.toString(), goalState.isGoalState());
+            assertNotNull(engine.toString(), metrics);
+            assertTrue(engine.toString(), metrics.getExpandedCount() > 0);
+            assertTrue(engine.toString(), metrics.getElapsedNanos() > 0);
+        }
+    }
+
+    @Test
+    public void timesOneHeuristicEvaluationPerInterval() {
+        SearchMetrics metrics = new SearchMetrics();
+        int sampledCount = 0;
+        for (int i = 0; i < 10 * SearchMetrics.HEURISTIC_SAMPLE_INTERVAL; i++) {
+            if (metrics.sampleHeuristic()) {
+                sampledCount++;
+                metrics.addHeuristicSample(5);
+            }
+        }
+
+        assertEquals(10, sampledCount);
+        assertEquals(10 * SearchMetrics.HEURISTIC_SAMPLE_INTERVAL * 5L, metrics.getHeuristicNanos());
+    }
+}
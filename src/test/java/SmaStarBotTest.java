@@ -0,0 +1,53 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class SmaStarBotTest {
+    private static final int SMALL_NODE_BUDGET = 24; // Forces nodes to be forgotten and generated again
+    private static final int MAX_CHILDREN = 4; // Generated by one expansion before the worst leaves are forgotten
+
+    /**
+     * With the pattern databases and a budget that holds the optimal path, the solution must have the optimal
+     * number of moves, found by the exact bidirectional breadth first search
+     */
+    @Test
+    public void findsOptimalSolutionsWithinASmallBudget() throws IOException {
+        for (String level : TestBoards.LEVELS) {
+            for (String inputString : TestBoards.readLevel(level)) {
+                int optimalCost = TestBoards.optimalCost(inputString);
+                if (optimalCost >= SMALL_NODE_BUDGET) {
+                    continue;
+                }
+                SmaStarBot bot = new SmaStarBot(SMALL_NODE_BUDGET, true);
+                GameState goalState = bot.play(new GameState(inputString));
+
+                assertTrue(inputString, goalState.isGoalState());
+                assertEquals(inputString, optimalCost, goalState.getActualCostToReach());
+                assertTrue(inputString, bot.isOptimal());
+                assertTrue(inputString, bot.getMetrics().getPeakClosedSize() <= SMALL_NODE_BUDGET + MAX_CHILDREN);
+            }
+        }
+    }
+
+    /**
+     * A solution of n moves takes n + 1 nodes along its path, a smaller budget cannot hold any
+     */
+    @Test
+    public void returnsNullWhenTheBudgetCannotHoldASolution() throws IOException {
+        for (String inputString : TestBoards.readLevel("input/level1.txt")) {
+            int optimalCost = TestBoards.optimalCost(inputString);
+            if (optimalCost >= 2) {
+                assertNull(inputString, new SmaStarBot(optimalCost, true).play(new GameState(inputString)));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsABudgetBelowTwoNodes() {
+        new SmaStarBot(1, true);
+    }
+}
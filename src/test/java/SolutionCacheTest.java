@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SolutionCacheTest {
+    private static final String BOARD = "r r b r r b b r b b w w r e b";
+    private static final String OTHER_BOARD = "w r r w b b e b b r r r b b r";
+    private static final int A_STAR = SolutionCache.producerOf(Config.SEARCH.ENGINE.A_STAR, false);
+    private static final int IDA_STAR = SolutionCache.producerOf(Config.SEARCH.ENGINE.IDA_STAR, false);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void answersMirroredBoards() {
+        SolutionCache cache = new SolutionCache(16, null);
+        GameState initialState = new GameState(BOARD);
+        GameState endState = TestBoards.randomWalk(initialState, 40, new Random(1));
+        cache.store(initialState, endState, SolutionCache.OPTIMAL);
+
+        GameState mirroredState = new GameState(Symmetry.apply(Symmetry.MIRROR, initialState.getBoard()));
+        GameState replayedState = cache.lookup(mirroredState, A_STAR);
+        assertEquals(Symmetry.apply(Symmetry.MIRROR, endState.getBoard()), replayedState.getBoard());
+        assertEquals(40, replayedState.getActualCostToReach());
+        assertNull(cache.lookup(new GameState(OTHER_BOARD), A_STAR));
+    }
+
+    /**
+     * Solutions longer than 255 moves used to lose their length on save, and shift every entry after them
+     */
+    @Test
+    public void savesLongSolutions() throws IOException {
+        File file = new File(folder.getRoot(), "solutions.cache");
+        SolutionCache cache = new SolutionCache(16, file);
+        GameState initialState = new GameState(BOARD);
+        GameState otherInitialState = new GameState(OTHER_BOARD);
+        GameState longEndState = TestBoards.randomWalk(initialState, 300, new Random(2));
+        GameState otherEndState = TestBoards.randomWalk(otherInitialState, 7, new Random(3));
+        cache.store(initialState, longEndState, SolutionCache.OPTIMAL);
+        cache.store(otherInitialState, otherEndState, A_STAR);
+        cache.save();
+
+        SolutionCache reloadedCache = new SolutionCache(16, file);
+        reloadedCache.load();
+        assertEquals(2, reloadedCache.size());
+        assertNull(reloadedCache.lookup(otherInitialState, IDA_STAR));
+        assertArrayEquals(longEndState.getMovedCellIndexes(),
+                reloadedCache.lookup(initialState, IDA_STAR).getMovedCellIndexes());
+        assertArrayEquals(otherEndState.getMovedCellIndexes(),
+                reloadedCache.lookup(otherInitialState, A_STAR).getMovedCellIndexes());
+    }
+
+    @Test
+    public void answersOtherEnginesWithOptimalSolutionsOnly() {
+        SolutionCache cache = new SolutionCache(16, null);
+        GameState initialState = new GameState(BOARD);
+        GameState longEndState = TestBoards.randomWalk(initialState, 30, new Random(4));
+        GameState shortEndState = TestBoards.randomWalk(initialState, 10, new Random(5));
+
+        cache.store(initialState, longEndState, A_STAR);
+        assertEquals(30, cache.lookup(initialState, A_STAR).getActualCostToReach());
+        assertNull(cache.lookup(initialState, IDA_STAR));
+        assertNull(cache.lookup(initialState, SolutionCache.producerOf(Config.SEARCH.ENGINE.A_STAR, true)));
+
+        cache.store(initialState, shortEndState, SolutionCache.OPTIMAL);
+        cache.store(initialState, longEndState, A_STAR);
+        assertEquals(10, cache.lookup(initialState, A_STAR).getActualCostToReach());
+        assertEquals(10, cache.lookup(initialState, IDA_STAR).getActualCostToReach());
+    }
+
+    @Test
+    public void savesNothingUntilSomethingIsStored() throws IOException {
+        File file = new File(folder.getRoot(), "solutions.cache");
+        SolutionCache cache = new SolutionCache(16, file);
+        cache.save();
+        assertFalse(file.exists());
+
+        cache.store(new GameState(BOARD), TestBoards.randomWalk(new GameState(BOARD), 5, new Random(6)), A_STAR);
+        cache.save();
+        assertTrue(file.isFile());
+    }
+}
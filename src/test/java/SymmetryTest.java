@@ -0,0 +1,58 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SymmetryTest {
+    private static final int WALK_LENGTH = 100;
+
+    /**
+     * Symmetry reduction keeps one of the images of a board, which is only sound if the estimates
+     * cannot tell the images apart
+     */
+    @Test
+    public void imagesShareTheirEstimates() throws IOException {
+        Random random = new Random(6721);
+        for (String level : TestBoards.LEVELS) {
+            List<PatternDatabase> databases = null;
+            for (String inputString : TestBoards.readLevel(level)) {
+                GameState gameState = new GameState(inputString);
+                if (databases == null) {
+                    databases = TestBoards.buildDatabases(gameState.getCandiesCount());
+                }
+                for (int step = 0; step < WALK_LENGTH; step++) {
+                    assertImagesShareEstimates(gameState.getBoard(), databases);
+                    gameState = TestBoards.randomWalk(gameState, 1, random);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everySymmetryIsItsOwnInverse() {
+        long board = new GameState("r r b r r b b r b b w w r e b").getBoard();
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            assertEquals(board, Symmetry.apply(symmetry, Symmetry.apply(symmetry, board)));
+            for (int cell = 0; cell < Board.CELL_COUNT; cell++) {
+                assertEquals(cell, Symmetry.mapCell(symmetry, Symmetry.mapCell(symmetry, cell)));
+                assertEquals(Board.get(board, cell),
+                        Board.get(Symmetry.apply(symmetry, board), Symmetry.mapCell(symmetry, cell)));
+            }
+            assertEquals(Symmetry.canonical(board), Symmetry.canonical(Symmetry.apply(symmetry, board)));
+        }
+    }
+
+    private static void assertImagesShareEstimates(long board, List<PatternDatabase> databases) {
+        for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+            long image = Symmetry.apply(symmetry, board);
+            String message = "Symmetry " + symmetry + " of " + Board.toString(board);
+            assertEquals(message, Heuristic.estimate(board), Heuristic.estimate(image));
+            for (PatternDatabase database : databases) {
+                assertEquals(message, database.lookup(board), database.lookup(image));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TableFileTest {
+    private static final long IDENTITY = 0x1234_5678_9ABCL;
+    private static final byte[] PAYLOAD = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mapsWhatWasWritten() throws IOException {
+        File file = new File(folder.getRoot(), "table.bin");
+        TableFile.write(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD);
+
+        ByteBuffer payload = TableFile.map(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD.length);
+        assertArrayEquals(PAYLOAD, bytesOf(payload));
+    }
+
+    @Test
+    public void createsMissingDirectories() throws IOException {
+        File file = new File(folder.getRoot(), "a/b/table.bin");
+        TableFile.write(file, TableFile.KIND_DISTANCE_TABLE, IDENTITY, PAYLOAD);
+
+        assertArrayEquals(PAYLOAD, bytesOf(TableFile.map(file, TableFile.KIND_DISTANCE_TABLE, IDENTITY)));
+    }
+
+    @Test
+    public void rejectsCorruptedPayload() throws IOException {
+        File file = new File(folder.getRoot(), "table.bin");
+        TableFile.write(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(randomAccessFile.length() - 3);
+            randomAccessFile.write(0x7F);
+        }
+
+        assertRejected(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, "checksum mismatch");
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        File file = new File(folder.getRoot(), "table.bin");
+        TableFile.write(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(randomAccessFile.length() - 1);
+        }
+
+        assertRejected(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, "unexpected size");
+    }
+
+    @Test
+    public void rejectsAnotherTable() throws IOException {
+        File file = new File(folder.getRoot(), "table.bin");
+        TableFile.write(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD);
+
+        assertRejected(file, TableFile.KIND_DISTANCE_TABLE, IDENTITY, "not a table of kind");
+        assertRejected(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY + 1, "stale table");
+        try {
+            TableFile.map(file, TableFile.KIND_PATTERN_DATABASE, IDENTITY, PAYLOAD.length + 1);
+            fail("Mapped a table of the wrong length");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("stale table"));
+        }
+    }
+
+    /**
+     * A rewrite replaces the file by rename: a mapping of the old file keeps its bytes,
+     * and no temporary file is left behind
+     */
+    @Test
+    public void replacesByRename() throws IOException {
+        File file = new File(folder.getRoot(), "table.bin");
+        TableFile.write(file, TableFile.KIND_SOLUTION_CACHE, IDENTITY, PAYLOAD);
+        ByteBuffer oldPayload = TableFile.map(file, TableFile.KIND_SOLUTION_CACHE, IDENTITY);
+
+        byte[] newPayload = {42, 43};
+        TableFile.write(file, TableFile.KIND_SOLUTION_CACHE, IDENTITY, newPayload);
+
+        assertArrayEquals(PAYLOAD, bytesOf(oldPayload));
+        assertArrayEquals(newPayload, bytesOf(TableFile.map(file, TableFile.KIND_SOLUTION_CACHE, IDENTITY)));
+        assertArrayEquals(new String[]{"table.bin"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void identityPacksFourBitsPerCount() {
+        assertEquals(0x0123_4567L, TableFile.identityOf(new int[]{0, 1, 2, 3, 4, 5, 6, 7}));
+    }
+
+    private static void assertRejected(File file, int kind, long identity, String reason) {
+        try {
+            TableFile.map(file, kind, identity);
+            fail("Mapped a table that should be rejected for " + reason);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(reason));
+        }
+    }
+
+    private static byte[] bytesOf(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boards and helpers shared by the tests: the boards of the level files, random walks from a board,
+ * pattern databases and optimal costs to check estimates and engines against
+ */
+final class TestBoards {
+    static final String[] LEVELS = {"input/level1.txt", "input/level2.txt", "input/level3.txt",
+            "input/level4.txt"};
+
+    private TestBoards() {
+    }
+
+    /**
+     * @param level the path of a level file
+     * @return the input string of every puzzle of the level, blank lines skipped
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static List<String> readLevel(String level) throws IOException {
+        List<String> inputStrings = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(level))) {
+            if (!line.trim().isEmpty()) {
+                inputStrings.add(line);
+            }
+        }
+        return inputStrings;
+    }
+
+    /**
+     * @param gameState the game state
+     * @param random    the source of the choice
+     * @return the cell index of a candy that can move into the empty cell
+     */
+    static int randomMove(GameState gameState, Random random) {
+        int[] moves = Config.GAME_RULES.getNeighbourIndexes(gameState.getEmptyCellIndex());
+        return moves[random.nextInt(moves.length)];
+    }
+
+    /**
+     * @param gameState the game state the walk starts from, left unchanged
+     * @param length    the number of moves
+     * @param random    the source of the moves
+     * @return the game state reached, with the moves as its steps
+     */
+    static GameState randomWalk(GameState gameState, int length, Random random) {
+        for (int step = 0; step < length; step++) {
+            int move = randomMove(gameState, random);
+            gameState = gameState.clone();
+            gameState.moveCandyAt(move);
+        }
+        return gameState;
+    }
+
+    /**
+     * @param candiesCount the number of candies of each color of the boards looked up
+     * @return the pattern databases PatternHeuristic sums for these candies
+     */
+    static List<PatternDatabase> buildDatabases(int[] candiesCount) {
+        List<PatternDatabase> databases = new ArrayList<>();
+        for (int keptCodesMask : PatternHeuristic.groupCandies(candiesCount)) {
+            databases.add(PatternDatabase.build(candiesCount, keptCodesMask));
+        }
+        return databases;
+    }
+
+    /**
+     * @param inputString the initial state
+     * @return the fewest moves that solve it, found by the exact bidirectional breadth first search
+     */
+    static int optimalCost(String inputString) {
+        return new BidirectionalBot().play(new GameState(inputString)).getActualCostToReach();
+    }
+}